@@ -0,0 +1,91 @@
+package com.nilscoding.maven.mvndlwsdl.benchmarks;
+
+import com.nilscoding.maven.mvndlwsdl.utils.DownloadUtils;
+import com.nilscoding.maven.mvndlwsdl.utils.IDownloader;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link DownloadUtils} overhead with a no-op downloader.
+ * @author NilsCoding
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DownloadUtilsBenchmark {
+
+    /**
+     * URL to "download".
+     */
+    private static final String URL = "https://localhost/bench/schema.xsd";
+
+    /**
+     * Logging.
+     */
+    private final Log log = new SystemStreamLog();
+    /**
+     * Opened downloader.
+     */
+    private IDownloader openedDownloader;
+
+    /**
+     * Opens the downloader.
+     * @throws Exception if downloader cannot be opened
+     */
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        this.openedDownloader = DownloadUtils.openDownloader(NoOpDownloader.class.getName(), null, this.log);
+    }
+
+    /**
+     * Closes the downloader.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.openedDownloader.close();
+    }
+
+    /**
+     * Downloads with a downloader created, opened and closed for this download only.
+     * @return content
+     */
+    @Benchmark
+    public String downloadWithNewDownloader() {
+        return DownloadUtils.download(URL, this.log, NoOpDownloader.class.getName(), null);
+    }
+
+    /**
+     * Downloads with the opened downloader.
+     * @return content
+     */
+    @Benchmark
+    public String downloadWithOpenedDownloader() {
+        return DownloadUtils.download(this.openedDownloader, URL, this.log, null);
+    }
+
+    /**
+     * Downloads bytes with the opened downloader.
+     * @return content
+     */
+    @Benchmark
+    public byte[] downloadBytesWithOpenedDownloader() {
+        return DownloadUtils.downloadBytes(this.openedDownloader, URL, this.log, null);
+    }
+
+}
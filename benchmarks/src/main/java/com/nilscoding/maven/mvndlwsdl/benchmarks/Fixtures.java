@@ -0,0 +1,79 @@
+package com.nilscoding.maven.mvndlwsdl.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Generated WSDL and XSD fixtures of a given size.
+ * @author NilsCoding
+ */
+public final class Fixtures {
+
+    /**
+     * Number of schema imports per fixture.
+     */
+    public static final int IMPORT_COUNT = 20;
+
+    private Fixtures() {
+    }
+
+    /**
+     * Generates an XSD with {@link #IMPORT_COUNT} imports, filled with elements up to the given size.
+     * @param size approximate size in bytes
+     * @return XSD content as UTF-8 bytes
+     */
+    public static byte[] generateXsd(int size) {
+        StringBuilder sb = new StringBuilder(size + 256);
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\"urn:bench\">\n");
+        appendImports(sb);
+        appendElements(sb, size);
+        sb.append("</xs:schema>\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Generates a WSDL with {@link #IMPORT_COUNT} schema imports, filled with messages up to the given size.
+     * @param size approximate size in bytes
+     * @return WSDL content as UTF-8 bytes
+     */
+    public static byte[] generateWsdl(int size) {
+        StringBuilder sb = new StringBuilder(size + 256);
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<wsdl:definitions xmlns:wsdl=\"http://schemas.xmlsoap.org/wsdl/\"")
+                .append(" xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\"urn:bench\">\n");
+        sb.append("<wsdl:types><xs:schema>\n");
+        appendImports(sb);
+        appendElements(sb, size);
+        sb.append("</xs:schema></wsdl:types>\n");
+        sb.append("</wsdl:definitions>\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends the imports.
+     * @param sb target
+     */
+    private static void appendImports(StringBuilder sb) {
+        for (int i = 0; i < IMPORT_COUNT; i++) {
+            sb.append("  <xs:import namespace=\"urn:bench:").append(i)
+                    .append("\" schemaLocation=\"https://localhost/bench/schema").append(i).append(".xsd\"/>\n");
+        }
+    }
+
+    /**
+     * Appends complex type elements until the given size is reached.
+     * @param sb   target
+     * @param size approximate size in characters
+     */
+    private static void appendElements(StringBuilder sb, int size) {
+        int index = 0;
+        while (sb.length() < size) {
+            sb.append("  <xs:complexType name=\"Type").append(index).append("\"><xs:sequence>")
+                    .append("<xs:element name=\"id\" type=\"xs:long\"/>")
+                    .append("<xs:element name=\"name\" type=\"xs:string\" minOccurs=\"0\"/>")
+                    .append("</xs:sequence></xs:complexType>\n");
+            index++;
+        }
+    }
+
+}
@@ -0,0 +1,245 @@
+package com.nilscoding.maven.mvndlwsdl.benchmarks;
+
+import com.nilscoding.maven.mvndlwsdl.DownloadWsdlMojo;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end load harness: serves a synthetic schema graph from a local mock server, with injected
+ * latency, and runs the full {@link DownloadWsdlMojo} against it, reporting wall time, request count and
+ * peak heap. No real network is needed.
+ * <p>
+ * Arguments are <code>key=value</code> pairs. Graph and server: <code>nodes</code>, <code>fanOut</code>,
+ * <code>depth</code>, <code>cycles</code>, <code>namespaces</code>, <code>latency</code> (ms),
+ * <code>jitter</code> (ms), <code>runs</code>. Every other key is set as mojo parameter,
+ * e.g. <code>maxParallelDownloads=16</code> or <code>downloaderOptions=cache=false</code>.
+ * </p>
+ * @author NilsCoding
+ */
+public final class LoadHarness {
+
+    /**
+     * Bytes per megabyte.
+     */
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+    /**
+     * Logger of mock server, kept referenced so the level is not lost.
+     */
+    private static final Logger SERVER_LOGGER = Logger.getLogger(MockWebServer.class.getName());
+
+    private LoadHarness() {
+    }
+
+    /**
+     * Runs the harness.
+     * @param args arguments as <code>key=value</code> pairs
+     * @throws Exception on errors
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> settings = new LinkedHashMap<>();
+        settings.put("nodes", "1000");
+        settings.put("fanOut", "5");
+        settings.put("depth", "10");
+        settings.put("cycles", "true");
+        settings.put("namespaces", "0");
+        settings.put("latency", "20");
+        settings.put("jitter", "10");
+        settings.put("runs", "3");
+        Map<String, String> mojoParameters = new LinkedHashMap<>();
+        mojoParameters.put("downloaderOptions", "cache=false");
+        for (String oneArg : args) {
+            int splitIndex = oneArg.indexOf('=');
+            if (splitIndex <= 0) {
+                throw new IllegalArgumentException("expected key=value: " + oneArg);
+            }
+            String key = oneArg.substring(0, splitIndex);
+            String value = oneArg.substring(splitIndex + 1);
+            if (settings.containsKey(key)) {
+                settings.put(key, value);
+            } else {
+                mojoParameters.put(key, value);
+            }
+        }
+
+        SchemaGraph graph = new SchemaGraph(Integer.parseInt(settings.get("nodes")),
+                Integer.parseInt(settings.get("fanOut")),
+                Integer.parseInt(settings.get("depth")),
+                Boolean.parseBoolean(settings.get("cycles")),
+                Integer.parseInt(settings.get("namespaces")));
+        int latency = Integer.parseInt(settings.get("latency"));
+        int jitter = Integer.parseInt(settings.get("jitter"));
+        int runs = Integer.parseInt(settings.get("runs"));
+        SERVER_LOGGER.setLevel(Level.WARNING);
+        System.out.println("settings: " + settings + ", mojo: " + mojoParameters);
+
+        try (MockWebServer server = new MockWebServer()) {
+            server.setDispatcher(new GraphDispatcher(graph, server, latency, jitter));
+            server.start();
+            String wsdlUrl = server.url(graph.getWsdlPath()).toString();
+            for (int run = 1; run <= runs; run++) {
+                Path outputFolder = Files.createTempDirectory("mvndlwsdl-load-");
+                try {
+                    DownloadWsdlMojo mojo = new DownloadWsdlMojo();
+                    mojo.setLog(new QuietLog());
+                    setParameter(mojo, "folder", outputFolder.toString() + File.separator);
+                    setParameter(mojo, "basename", "service");
+                    setParameter(mojo, "wsdlLocation", wsdlUrl);
+                    setParameter(mojo, "maxParallelDownloads", "4");
+                    for (Map.Entry<String, String> oneParameter : mojoParameters.entrySet()) {
+                        setParameter(mojo, oneParameter.getKey(), oneParameter.getValue());
+                    }
+
+                    int requestsBefore = server.getRequestCount();
+                    resetPeakHeap();
+                    long start = System.nanoTime();
+                    mojo.execute();
+                    long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    long files;
+                    try (Stream<Path> outputFiles = Files.list(outputFolder)) {
+                        files = outputFiles.count();
+                    }
+                    System.out.printf("run %d: wall time %d ms, %d request(s), %d file(s), peak heap %.1f MB%n",
+                            run, wallMillis, server.getRequestCount() - requestsBefore, files,
+                            getPeakHeap() / BYTES_PER_MB);
+                } finally {
+                    deleteRecursively(outputFolder);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets a mojo parameter field by name, as Maven would do.
+     * @param mojo  mojo
+     * @param name  parameter name
+     * @param value parameter value
+     * @throws ReflectiveOperationException if parameter does not exist
+     */
+    private static void setParameter(Object mojo, String name, String value) throws ReflectiveOperationException {
+        Field field = mojo.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        if (field.getType() == int.class) {
+            field.setInt(mojo, Integer.parseInt(value));
+        } else if (field.getType() == boolean.class) {
+            field.setBoolean(mojo, Boolean.parseBoolean(value));
+        } else {
+            field.set(mojo, value);
+        }
+    }
+
+    /**
+     * Runs the garbage collector and resets the peak usage of all heap pools.
+     */
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean onePool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (onePool.getType() == MemoryType.HEAP) {
+                onePool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Returns the sum of the peak usage of all heap pools.
+     * @return peak heap in bytes
+     */
+    private static long getPeakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean onePool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (onePool.getType() == MemoryType.HEAP) {
+                peak += onePool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Deletes the given folder with all files.
+     * @param folder folder to delete
+     * @throws IOException on errors
+     */
+    private static void deleteRecursively(Path folder) throws IOException {
+        try (Stream<Path> paths = Files.walk(folder)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    /**
+     * Dispatcher serving the schema graph with injected latency.
+     */
+    private static final class GraphDispatcher extends Dispatcher {
+        /**
+         * Schema graph.
+         */
+        private final SchemaGraph graph;
+        /**
+         * Server, to get the base URL.
+         */
+        private final MockWebServer server;
+        /**
+         * Latency in milliseconds.
+         */
+        private final int latency;
+        /**
+         * Maximum additional random latency in milliseconds.
+         */
+        private final int jitter;
+        /**
+         * Random for jitter.
+         */
+        private final Random random = new Random(0);
+
+        /**
+         * Creates a new instance.
+         * @param graph   schema graph
+         * @param server  server
+         * @param latency latency in milliseconds
+         * @param jitter  maximum additional random latency in milliseconds
+         */
+        GraphDispatcher(SchemaGraph graph, MockWebServer server, int latency, int jitter) {
+            this.graph = graph;
+            this.server = server;
+            this.latency = latency;
+            this.jitter = jitter;
+        }
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            String baseUrl = this.server.url("/").toString();
+            byte[] content = this.graph.getContent(baseUrl.substring(0, baseUrl.length() - 1), request.getPath());
+            int delay = this.latency;
+            if (this.jitter > 0) {
+                synchronized (this.random) {
+                    delay += this.random.nextInt(this.jitter + 1);
+                }
+            }
+            if (content == null) {
+                return new MockResponse().setResponseCode(404).setHeadersDelay(delay, TimeUnit.MILLISECONDS);
+            }
+            return new MockResponse()
+                    .setHeader("Content-Type", "text/xml; charset=UTF-8")
+                    .setBody(new Buffer().write(content))
+                    .setHeadersDelay(delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+}
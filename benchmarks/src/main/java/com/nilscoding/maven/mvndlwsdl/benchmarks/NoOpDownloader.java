@@ -0,0 +1,28 @@
+package com.nilscoding.maven.mvndlwsdl.benchmarks;
+
+import com.nilscoding.maven.mvndlwsdl.utils.IDownloader;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Downloader returning a constant string without any I/O, to measure the download overhead.
+ * @author NilsCoding
+ */
+public class NoOpDownloader implements IDownloader {
+
+    /**
+     * Constant content.
+     */
+    public static final String CONTENT = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\"/>";
+
+    /**
+     * Creates a new instance.
+     */
+    public NoOpDownloader() {
+    }
+
+    @Override
+    public String downloadFile(String url, Log log, String optionsStr) {
+        return CONTENT;
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.nilscoding.maven.mvndlwsdl.benchmarks;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+/**
+ * Log printing only warnings and errors.
+ * @author NilsCoding
+ */
+public class QuietLog extends SystemStreamLog {
+
+    /**
+     * Creates a new instance.
+     */
+    public QuietLog() {
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return false;
+    }
+
+    @Override
+    public void info(CharSequence content) {
+    }
+
+    @Override
+    public void info(CharSequence content, Throwable error) {
+    }
+
+    @Override
+    public void info(Throwable error) {
+    }
+
+}
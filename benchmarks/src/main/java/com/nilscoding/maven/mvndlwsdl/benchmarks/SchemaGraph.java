@@ -0,0 +1,190 @@
+package com.nilscoding.maven.mvndlwsdl.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic schema graph: a WSDL importing <code>fanOut</code> schemas, each importing
+ * <code>fanOut</code> further schemas, up to the given node count and depth.
+ * Optionally every schema also imports its parent (cycles), and schemas can share namespaces.
+ * @author NilsCoding
+ */
+public class SchemaGraph {
+
+    /**
+     * Number of schema nodes.
+     */
+    protected final int nodeCount;
+    /**
+     * Number of imports per node.
+     */
+    protected final int fanOut;
+    /**
+     * Maximum depth, WSDL imports are depth 1.
+     */
+    protected final int maxDepth;
+    /**
+     * True to add an import of the parent to every schema.
+     */
+    protected final boolean cycles;
+    /**
+     * Number of distinct namespaces, less than node count to share namespaces.
+     */
+    protected final int namespaceCount;
+
+    /**
+     * Creates a new instance.
+     * @param nodeCount      number of schema nodes
+     * @param fanOut         number of imports per node
+     * @param maxDepth       maximum depth, WSDL imports are depth 1
+     * @param cycles         true to add an import of the parent to every schema
+     * @param namespaceCount number of distinct namespaces, less than node count to share namespaces
+     */
+    public SchemaGraph(int nodeCount, int fanOut, int maxDepth, boolean cycles, int namespaceCount) {
+        this.nodeCount = Math.max(nodeCount, 0);
+        this.fanOut = Math.max(fanOut, 1);
+        this.maxDepth = Math.max(maxDepth, 1);
+        this.cycles = cycles;
+        this.namespaceCount = (namespaceCount <= 0) ? this.nodeCount : namespaceCount;
+    }
+
+    /**
+     * Returns the path of the WSDL.
+     * @return WSDL path
+     */
+    public String getWsdlPath() {
+        return "/service?wsdl";
+    }
+
+    /**
+     * Returns the content for the given request path.
+     * @param baseUrl base URL of server, without trailing slash
+     * @param path    request path
+     * @return content or null if not found
+     */
+    public byte[] getContent(String baseUrl, String path) {
+        if (this.getWsdlPath().equals(path)) {
+            return this.generateWsdl(baseUrl);
+        }
+        if ((path != null) && path.startsWith("/schema") && path.endsWith(".xsd")) {
+            try {
+                int node = Integer.parseInt(path.substring("/schema".length(), path.length() - ".xsd".length()));
+                if ((node >= 0) && (node < this.nodeCount)) {
+                    return this.generateXsd(baseUrl, node);
+                }
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the imported nodes of the given node.
+     * @param node node, -1 for the WSDL
+     * @return imported nodes, can be empty
+     */
+    public List<Integer> getChildren(int node) {
+        List<Integer> children = new ArrayList<>();
+        if (this.getDepth(node) >= this.maxDepth) {
+            return children;
+        }
+        for (int i = 0; i < this.fanOut; i++) {
+            int child = (node + 1) * this.fanOut + i;
+            if (child < this.nodeCount) {
+                children.add(child);
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Returns the depth of the given node.
+     * @param node node, -1 for the WSDL
+     * @return depth, 0 for the WSDL
+     */
+    public int getDepth(int node) {
+        int depth = 0;
+        int current = node;
+        while (current >= 0) {
+            current = this.getParent(current);
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * Returns the parent of the given node.
+     * @param node node
+     * @return parent node, -1 for the WSDL
+     */
+    public int getParent(int node) {
+        return (node / this.fanOut) - 1;
+    }
+
+    /**
+     * Returns the namespace of the given node.
+     * @param node node
+     * @return namespace
+     */
+    public String getNamespace(int node) {
+        return "urn:load:" + (node % this.namespaceCount);
+    }
+
+    /**
+     * Generates the WSDL.
+     * @param baseUrl base URL of server
+     * @return WSDL content
+     */
+    protected byte[] generateWsdl(String baseUrl) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<wsdl:definitions xmlns:wsdl=\"http://schemas.xmlsoap.org/wsdl/\"")
+                .append(" xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\"urn:load\">\n");
+        sb.append("<wsdl:types><xs:schema>\n");
+        this.appendImports(sb, baseUrl, this.getChildren(-1));
+        sb.append("</xs:schema></wsdl:types>\n");
+        sb.append("</wsdl:definitions>\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Generates the XSD of the given node.
+     * @param baseUrl base URL of server
+     * @param node    node
+     * @return XSD content
+     */
+    protected byte[] generateXsd(String baseUrl, int node) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\"")
+                .append(this.getNamespace(node)).append("\">\n");
+        List<Integer> imports = this.getChildren(node);
+        int parent = this.getParent(node);
+        if (this.cycles && (parent >= 0)) {
+            imports.add(parent);
+        }
+        this.appendImports(sb, baseUrl, imports);
+        sb.append("  <xs:complexType name=\"Type").append(node).append("\"><xs:sequence>")
+                .append("<xs:element name=\"id\" type=\"xs:long\"/>")
+                .append("</xs:sequence></xs:complexType>\n");
+        sb.append("</xs:schema>\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends imports of the given nodes.
+     * @param sb      target
+     * @param baseUrl base URL of server
+     * @param nodes   imported nodes
+     */
+    protected void appendImports(StringBuilder sb, String baseUrl, List<Integer> nodes) {
+        for (Integer oneNode : nodes) {
+            sb.append("  <xs:import namespace=\"").append(this.getNamespace(oneNode))
+                    .append("\" schemaLocation=\"").append(baseUrl).append("/schema").append(oneNode)
+                    .append(".xsd\"/>\n");
+        }
+    }
+
+}
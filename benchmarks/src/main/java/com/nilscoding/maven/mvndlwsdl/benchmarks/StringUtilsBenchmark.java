@@ -0,0 +1,43 @@
+package com.nilscoding.maven.mvndlwsdl.benchmarks;
+
+import com.nilscoding.maven.mvndlwsdl.utils.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link StringUtils}.
+ * @author NilsCoding
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringUtilsBenchmark {
+
+    /**
+     * Typical downloader options.
+     */
+    private String optionsStr = "proxyHost=proxy.example.com;proxyPort=3128;authType=basic;authUser=user;"
+            + "authPass=secret;connectTimeout=5;readTimeout=30;cacheDir=/tmp/cache";
+
+    /**
+     * Parses the downloader options.
+     * @return parsed options
+     */
+    @Benchmark
+    public Map<String, String> parseOptions() {
+        return StringUtils.parseOptions(this.optionsStr);
+    }
+
+}
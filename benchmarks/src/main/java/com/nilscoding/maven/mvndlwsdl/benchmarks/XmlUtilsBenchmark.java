@@ -0,0 +1,149 @@
+package com.nilscoding.maven.mvndlwsdl.benchmarks;
+
+import com.nilscoding.maven.mvndlwsdl.utils.XmlUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the XML hot paths in {@link XmlUtils}, over generated fixtures from 10 KB to 50 MB.
+ * @author NilsCoding
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XmlUtilsBenchmark {
+
+    /**
+     * Fixture size in bytes.
+     */
+    @Param({"10240", "1048576", "52428800"})
+    public int size;
+
+    /**
+     * Fixture kind: wsdl or xsd.
+     */
+    @Param({"wsdl", "xsd"})
+    public String kind;
+
+    /**
+     * Fixture as string.
+     */
+    private String xmlStr;
+    /**
+     * Fixture as bytes.
+     */
+    private byte[] xmlBytes;
+    /**
+     * Parsed fixture.
+     */
+    private Document document;
+    /**
+     * Nodes with schema location in parsed fixture.
+     */
+    private List<Node> schemaLocationNodes;
+    /**
+     * Output file.
+     */
+    private Path outputFile;
+    /**
+     * Counter for changed attribute values.
+     */
+    private int counter;
+
+    /**
+     * Generates and parses the fixture.
+     * @throws IOException if output file cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.xmlBytes = "wsdl".equals(this.kind) ? Fixtures.generateWsdl(this.size) : Fixtures.generateXsd(this.size);
+        this.xmlStr = new String(this.xmlBytes, StandardCharsets.UTF_8);
+        this.document = XmlUtils.loadXmlFromBytes(this.xmlBytes);
+        this.schemaLocationNodes = XmlUtils.findNodesWithAttribute(this.document, "schemaLocation");
+        this.outputFile = Files.createTempFile("mvndlwsdl-bench-", ".xml");
+    }
+
+    /**
+     * Deletes the output file.
+     * @throws IOException if output file cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.outputFile);
+    }
+
+    /**
+     * Parses the fixture from a string.
+     * @return parsed document
+     */
+    @Benchmark
+    public Document loadXmlFromString() {
+        return XmlUtils.loadXmlFromString(this.xmlStr);
+    }
+
+    /**
+     * Parses the fixture from bytes.
+     * @return parsed document
+     */
+    @Benchmark
+    public Document loadXmlFromBytes() {
+        return XmlUtils.loadXmlFromBytes(this.xmlBytes);
+    }
+
+    /**
+     * Finds all nodes with schema location.
+     * @return found nodes
+     */
+    @Benchmark
+    public List<Node> findNodesWithAttribute() {
+        return XmlUtils.findNodesWithAttribute(this.document, "schemaLocation");
+    }
+
+    /**
+     * Changes the schema location of all import nodes.
+     * @return number of changed nodes
+     */
+    @Benchmark
+    public int setAttributeTextByName() {
+        String value = "bench_" + (this.counter++) + ".xsd";
+        int changed = 0;
+        for (Node oneNode : this.schemaLocationNodes) {
+            if (XmlUtils.setAttributeTextByName(oneNode, "schemaLocation", value)) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Writes the parsed fixture to a file.
+     * @return true on success
+     */
+    @Benchmark
+    public boolean writeXmlToFile() {
+        return XmlUtils.writeXmlToFile(this.document, this.outputFile.toString());
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * JMH benchmarks.
+ */
+package com.nilscoding.maven.mvndlwsdl.benchmarks;
@@ -1,29 +1,65 @@
 package com.nilscoding.maven.mvndlwsdl;
 
+import com.nilscoding.maven.mvndlwsdl.utils.ContractArchive;
 import com.nilscoding.maven.mvndlwsdl.utils.DownloadUtils;
+import com.nilscoding.maven.mvndlwsdl.utils.FileUtils;
+import com.nilscoding.maven.mvndlwsdl.utils.FolderLock;
+import com.nilscoding.maven.mvndlwsdl.utils.HashUtils;
+import com.nilscoding.maven.mvndlwsdl.utils.IDownloader;
+import com.nilscoding.maven.mvndlwsdl.utils.LockFile;
+import com.nilscoding.maven.mvndlwsdl.utils.MetricsCollector;
+import com.nilscoding.maven.mvndlwsdl.utils.NioDownloader;
+import com.nilscoding.maven.mvndlwsdl.utils.ResourceMetrics;
+import com.nilscoding.maven.mvndlwsdl.utils.SchemaCrawler;
 import com.nilscoding.maven.mvndlwsdl.utils.SchemaFile;
+import com.nilscoding.maven.mvndlwsdl.utils.SchemaNaming;
+import com.nilscoding.maven.mvndlwsdl.utils.SchemaReference;
+import com.nilscoding.maven.mvndlwsdl.utils.SharedCacheDownloader;
 import com.nilscoding.maven.mvndlwsdl.utils.StringUtils;
+import com.nilscoding.maven.mvndlwsdl.utils.WorkerThreads;
+import com.nilscoding.maven.mvndlwsdl.utils.XmlCatalog;
+import com.nilscoding.maven.mvndlwsdl.utils.XmlStreamUtils;
 import com.nilscoding.maven.mvndlwsdl.utils.XmlUtils;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.MavenProjectHelper;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
 import org.w3c.dom.Document;
-import org.w3c.dom.Node;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 /**
  * Maven plugin to download WSDL and XSD files to a folder,
  * changing imports of XSDs to relative path.
  * @author NilsCoding
  */
-@Mojo(name = "dl-wsdl")
+@Mojo(name = "dl-wsdl", threadSafe = true)
 public class DownloadWsdlMojo extends AbstractMojo {
 
     /**
@@ -44,6 +80,12 @@ public class DownloadWsdlMojo extends AbstractMojo {
     @Parameter
     private String wsdlLocation;
 
+    /**
+     * Parameter: wsdls.
+     */
+    @Parameter
+    private List<Wsdl> wsdls;
+
     /**
      * Parameter: downloaderClass.
      */
@@ -56,6 +98,138 @@ public class DownloadWsdlMojo extends AbstractMojo {
     @Parameter
     private String downloaderOptions;
 
+    /**
+     * Parameter: maxParallelDownloads.
+     */
+    @Parameter(defaultValue = "4")
+    private int maxParallelDownloads;
+
+    /**
+     * Parameter: lockfile.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean lockfile;
+
+    /**
+     * Parameter: offline.
+     */
+    @Parameter(defaultValue = "${settings.offline}")
+    private boolean offline;
+
+    /**
+     * Parameter: streaming.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean streaming;
+
+    /**
+     * Parameter: deduplicate.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean deduplicate;
+
+    /**
+     * Parameter: failOnError.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean failOnError;
+
+    /**
+     * Parameter: catalogs.
+     */
+    @Parameter
+    private List<String> catalogs;
+
+    /**
+     * Parameter: naming.
+     */
+    @Parameter(defaultValue = "index")
+    private String naming;
+
+    /**
+     * Parameter: metricsReport.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/mvn-download-wsdl/${mojoExecution.executionId}-metrics.json")
+    private String metricsReport;
+
+    /**
+     * Parameter: attach.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean attach;
+
+    /**
+     * Parameter: attachClassifier.
+     */
+    @Parameter(defaultValue = "wsdl")
+    private String attachClassifier;
+
+    /**
+     * Parameter: contractsArchive.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/mvn-download-wsdl/${mojoExecution.executionId}-contracts.jar")
+    private String contractsArchive;
+
+    /**
+     * Parameter: contractArtifact.
+     */
+    @Parameter
+    private String contractArtifact;
+
+    /**
+     * Parameter: sharedCache.
+     */
+    @Parameter(defaultValue = "true")
+    private boolean sharedCache;
+
+    /**
+     * Parameter: sharedCacheSize.
+     */
+    @Parameter(defaultValue = "64")
+    private int sharedCacheSize;
+
+    /**
+     * Parameter: lockFolder.
+     */
+    @Parameter
+    private String lockFolder;
+
+    /**
+     * Current session, to scope the shared cache to this build.
+     */
+    @Parameter(defaultValue = "${session}", readonly = true)
+    private MavenSession session;
+
+    /**
+     * Current project, to attach the contract archive to.
+     */
+    @Parameter(defaultValue = "${project}", readonly = true)
+    private MavenProject project;
+
+    /**
+     * Repository session, to resolve the contract artifact.
+     */
+    @Parameter(defaultValue = "${repositorySystemSession}", readonly = true)
+    private RepositorySystemSession repositorySession;
+
+    /**
+     * Remote repositories of the project, to resolve the contract artifact.
+     */
+    @Parameter(defaultValue = "${project.remoteProjectRepositories}", readonly = true)
+    private List<RemoteRepository> remoteRepositories;
+
+    /**
+     * Repository system, to resolve the contract artifact.
+     */
+    @Component
+    private RepositorySystem repositorySystem;
+
+    /**
+     * Project helper, to attach the contract archive.
+     */
+    @Component
+    private MavenProjectHelper projectHelper;
+
     /**
      * Executes the Maven Mojo.
      * @throws MojoExecutionException Mojo execution exception
@@ -63,180 +237,591 @@ public class DownloadWsdlMojo extends AbstractMojo {
      */
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
-        if (StringUtils.isEmpty(this.folder)
-                || StringUtils.isEmpty(this.basename)
-                || StringUtils.isEmpty(this.wsdlLocation)) {
+        if (StringUtils.isEmpty(this.folder)) {
             return;
         }
+        // executions of a parallel build or other processes may write to the same folder,
+        // the default lock folder does not depend on the project, so all of them see the same marker file
+        Path lockFolderPath = StringUtils.isEmpty(this.lockFolder)
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "mvn-download-wsdl-locks")
+                : Paths.get(this.lockFolder);
+        try (FolderLock folderLock = FolderLock.acquire(Paths.get(this.folder), lockFolderPath, getLog())) {
+            if (StringUtils.isEmpty(this.contractArtifact) == false) {
+                // the contract set was downloaded and published by another build
+                this.extractContractArtifact();
+            } else {
+                this.downloadToFolder();
+            }
+        } catch (IOException ex) {
+            getLog().error("could not lock folder '" + this.folder + "': " + ex);
+            if (this.failOnError) {
+                throw new MojoExecutionException("could not lock folder '" + this.folder + "'", ex);
+            }
+        }
+    }
 
-        getLog().info("about to fetch WSDL from '" + this.wsdlLocation + "' to folder '" + this.folder + "'");
-
-        // download WSDL file
-        String wsdlContentStr = DownloadUtils.download(this.wsdlLocation,
-                getLog(),
-                this.downloaderClass,
-                this.downloaderOptions);
-        if (wsdlContentStr == null) {
-            getLog().info("file not fetched from '" + this.wsdlLocation + "'");
+    /**
+     * Downloads all configured WSDLs which are not up-to-date, and attaches the contract archive if enabled.
+     * Must be called while holding the folder lock.
+     * @throws MojoExecutionException if not all files could be downloaded and failOnError is set
+     */
+    protected void downloadToFolder() throws MojoExecutionException {
+        List<Wsdl> allWsdls = this.collectWsdls();
+        if (allWsdls.isEmpty()) {
             return;
         }
-        getLog().info("wsdl length: " + wsdlContentStr.length());
+        this.deleteTempFiles(allWsdls);
+
+        // skip the network for all WSDLs pinned by lockfile and up-to-date
+        Map<String, LockFile> lockFiles = new LinkedHashMap<>();
+        boolean complete = true;
+        List<Wsdl> pendingWsdls = new ArrayList<>();
+        for (Wsdl oneWsdl : allWsdls) {
+            LockFile upToDateLockFile = this.findUpToDateLockFile(oneWsdl);
+            if (upToDateLockFile != null) {
+                lockFiles.put(oneWsdl.getBasename(), upToDateLockFile);
+                continue;
+            }
+            // offline builds only read local sources, so the set is incomplete
+            complete = complete && (this.offline == false);
+            pendingWsdls.add(oneWsdl);
+        }
 
+        if (pendingWsdls.isEmpty() == false) {
+            for (Wsdl oneWsdl : pendingWsdls) {
+                getLog().info("about to fetch WSDL from '" + oneWsdl.getWsdlLocation()
+                        + "' to folder '" + this.folder + "'");
+            }
+
+            // one downloader for the whole execution
+            boolean downloaded = false;
+            try (IDownloader downloader = this.openDownloader()) {
+                downloaded = this.downloadWsdls(downloader, pendingWsdls, lockFiles);
+            } catch (Exception ex) {
+                getLog().error("error: " + ex);
+            }
+            complete = complete && downloaded;
+        }
+        if ((complete == false) && this.failOnError) {
+            throw new MojoExecutionException("not all WSDL and schema files could be downloaded");
+        }
+        if (this.attach) {
+            this.attachContracts(allWsdls, lockFiles, complete);
+        }
+    }
+
+    /**
+     * Opens the downloader for this execution, sharing downloaded content with other executions if enabled
+     * and not streaming, as streaming bounds the memory usage. In offline mode, only local sources are read.
+     * @return opened downloader
+     * @throws Exception if downloader could not be opened
+     */
+    protected IDownloader openDownloader() throws Exception {
+        // offline builds never touch the network
+        String openedDownloaderClass = this.offline ? NioDownloader.class.getName() : this.downloaderClass;
+        IDownloader downloader = DownloadUtils.openDownloader(openedDownloaderClass, this.downloaderOptions,
+                getLog());
+        if ((this.sharedCache == false) || this.streaming) {
+            return downloader;
+        }
+        // content of a previous build in the same JVM (e.g. a build daemon) is not reused
+        String scope = (this.session == null) ? null : String.valueOf(this.session.getRequest().getStartTime());
+        return new SharedCacheDownloader(downloader, openedDownloaderClass, scope, this.sharedCacheSize);
+    }
+
+    /**
+     * Resolves the contract artifact from the Maven repositories and extracts its files to the output folder.
+     * @throws MojoExecutionException if the artifact could not be resolved or extracted and failOnError is set
+     */
+    protected void extractContractArtifact() throws MojoExecutionException {
         try {
-            Document wsdlDocument = XmlUtils.loadXmlFromString(wsdlContentStr);
-            List<Node> externalXsdNodes = XmlUtils.findNodesWithAttribute(wsdlDocument, "schemaLocation");
-
-            Map<String, SchemaFile> resolvedSchemas = new LinkedHashMap<>();
-
-            getLog().info("found " + externalXsdNodes.size() + " node(s) with external schema in WSDL");
-            if (externalXsdNodes.isEmpty() == false) {
-
-                // download files from WSDL
-                for (int i = 0; i < externalXsdNodes.size(); i++) {
-                    Node oneSchemaNode = externalXsdNodes.get(i);
-                    String xsdLocation = XmlUtils.getAttributeTextByName(oneSchemaNode, "schemaLocation");
-                    String targetNamespace = XmlUtils.getAttributeTextByName(oneSchemaNode, "namespace");
-                    String xsdContentStr = DownloadUtils.download(xsdLocation,
-                            getLog(),
-                            this.downloaderClass,
-                            this.downloaderOptions);
-                    if (resolvedSchemas.containsKey(targetNamespace) == false) {
-                        SchemaFile schemaFile = new SchemaFile();
-                        schemaFile.setSourceUrl(xsdLocation);
-                        schemaFile.setNamespace(targetNamespace);
-                        if (schemaFile.parseXml(xsdContentStr)) {
-                            resolvedSchemas.put(targetNamespace, schemaFile);
-                        }
-                    }
+            ArtifactRequest request = new ArtifactRequest(new DefaultArtifact(this.contractArtifact),
+                    this.remoteRepositories, null);
+            ArtifactResult result = this.repositorySystem.resolveArtifact(this.repositorySession, request);
+            int count = ContractArchive.extract(result.getArtifact().getFile().toPath(), Paths.get(this.folder),
+                    getLog());
+            getLog().info("extracted " + count + " file(s) of artifact '" + this.contractArtifact
+                    + "' to folder '" + this.folder + "'");
+        } catch (ArtifactResolutionException | IOException | IllegalArgumentException ex) {
+            getLog().error("could not extract artifact '" + this.contractArtifact + "': " + ex);
+            if (this.failOnError) {
+                throw new MojoExecutionException("could not extract artifact '" + this.contractArtifact + "'", ex);
+            }
+        }
+    }
+
+    /**
+     * Packages the files of all given WSDLs, with their lockfiles as manifest, to the contract archive and
+     * attaches it to the project. An incomplete set is not attached.
+     * @param allWsdls  all configured WSDLs
+     * @param lockFiles lockfiles by WSDL basename, listing the files of each WSDL
+     * @param complete  true if all files were downloaded and written
+     * @throws MojoExecutionException if the archive could not be written and failOnError is set
+     */
+    protected void attachContracts(List<Wsdl> allWsdls, Map<String, LockFile> lockFiles, boolean complete)
+            throws MojoExecutionException {
+        if (complete == false) {
+            getLog().warn("schema set is incomplete, no contract archive attached");
+            return;
+        }
+        // configuration order, so an unchanged set results in an identical archive
+        Map<String, LockFile> orderedLockFiles = new LinkedHashMap<>();
+        for (Wsdl oneWsdl : allWsdls) {
+            orderedLockFiles.put(oneWsdl.getBasename(), lockFiles.get(oneWsdl.getBasename()));
+        }
+        Path archivePath = Paths.get(this.contractsArchive);
+        try {
+            ContractArchive.write(archivePath, Paths.get(this.folder), orderedLockFiles);
+        } catch (IOException ex) {
+            getLog().error("could not write contract archive '" + archivePath + "': " + ex);
+            if (this.failOnError) {
+                throw new MojoExecutionException("could not write contract archive '" + archivePath + "'", ex);
+            }
+            return;
+        }
+        this.projectHelper.attachArtifact(this.project, "jar", this.attachClassifier, archivePath.toFile());
+        getLog().info("contract archive " + archivePath + " attached with classifier '" + this.attachClassifier + "'");
+    }
+
+    /**
+     * Returns all configured WSDLs: the one of <code>wsdlLocation</code> and <code>basename</code>, followed by
+     * the ones of <code>wsdls</code>. Incomplete entries are skipped.
+     * @return configured WSDLs, can be empty
+     */
+    protected List<Wsdl> collectWsdls() {
+        List<Wsdl> allWsdls = new ArrayList<>();
+        if ((StringUtils.isEmpty(this.wsdlLocation) == false) && (StringUtils.isEmpty(this.basename) == false)) {
+            allWsdls.add(new Wsdl(this.wsdlLocation, this.basename));
+        }
+        if (this.wsdls != null) {
+            for (Wsdl oneWsdl : this.wsdls) {
+                if ((oneWsdl == null)
+                        || StringUtils.isEmpty(oneWsdl.getWsdlLocation())
+                        || StringUtils.isEmpty(oneWsdl.getBasename())) {
+                    getLog().warn("skipping WSDL without wsdlLocation or basename");
+                    continue;
                 }
+                allWsdls.add(oneWsdl);
+            }
+        }
+        return allWsdls;
+    }
 
-                // check each schema if it contains other schemas
-                boolean atLeastOneSchemaWasAdded = false;
-                do {
-                    List<SchemaFile> tmpSchemaFiles = new LinkedList<>();
-                    for (SchemaFile oneFile : resolvedSchemas.values()) {
-                        if (oneFile.isProcessed()) {
-                            continue;
-                        }
-                        Document tmpDocument = oneFile.getDocument();
-                        if (tmpDocument != null) {
-                            List<Node> foundSchemaNodes = XmlUtils.findNodesWithAttribute(tmpDocument,
-                                    "schemaLocation");
-                            if ((foundSchemaNodes != null) && (foundSchemaNodes.isEmpty() == false)) {
-                                // check if node references a namespace that is not known yet
-                                for (Node oneSchemaNode : foundSchemaNodes) {
-                                    String targetNamespace = XmlUtils.getAttributeTextByName(oneSchemaNode,
-                                            "namespace");
-                                    if (StringUtils.isEmpty(targetNamespace) == false) {
-                                        if (resolvedSchemas.containsKey(targetNamespace) == false) {
-                                            // download schema file
-                                            String xsdLocation = XmlUtils.getAttributeTextByName(oneSchemaNode,
-                                                    "schemaLocation");
-                                            String xsdContentStr = DownloadUtils.download(xsdLocation,
-                                                    getLog(),
-                                                    this.downloaderClass,
-                                                    this.downloaderOptions);
-                                            if (StringUtils.isEmpty(xsdContentStr) == false) {
-                                                SchemaFile schemaFile = new SchemaFile();
-                                                schemaFile.setSourceUrl(xsdLocation);
-                                                schemaFile.setNamespace(targetNamespace);
-                                                if (schemaFile.parseXml(xsdContentStr)) {
-                                                    resolvedSchemas.put(targetNamespace, schemaFile);
-                                                }
-                                            }
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                        oneFile.setProcessed(true);
-                    }
-                    if (tmpSchemaFiles.isEmpty() == false) {
-                        for (SchemaFile oneFile : tmpSchemaFiles) {
-                            if (resolvedSchemas.containsKey(oneFile.getNamespace()) == false) {
-                                resolvedSchemas.put(oneFile.getNamespace(), oneFile);
-                                atLeastOneSchemaWasAdded = true;
-                            }
-                        }
-                    }
-                } while (atLeastOneSchemaWasAdded == true);
+    /**
+     * Deletes temporary files left by a previous build in the output folder and the folders of the given
+     * WSDLs. Subfolders are not scanned.
+     * @param allWsdls WSDLs to download
+     */
+    protected void deleteTempFiles(List<Wsdl> allWsdls) {
+        Set<Path> folders = new LinkedHashSet<>();
+        folders.add(Paths.get(this.folder).toAbsolutePath().normalize());
+        for (Wsdl oneWsdl : allWsdls) {
+            Path parent = Paths.get(this.folder + oneWsdl.getBasename()).toAbsolutePath().normalize().getParent();
+            if (parent != null) {
+                folders.add(parent);
+            }
+        }
+        int deletedCount = 0;
+        for (Path oneFolder : folders) {
+            try {
+                deletedCount += FileUtils.deleteTempFiles(oneFolder);
+            } catch (IOException ex) {
+                getLog().warn("could not delete temporary files in " + oneFolder + ": " + ex);
+            }
+        }
+        if (deletedCount > 0) {
+            getLog().info("deleted " + deletedCount + " temporary file(s) left by a previous build");
+        }
+    }
 
-                // every schema should have been found by now
+    /**
+     * Checks if the files of the given WSDL match its lockfile, if lockfile or offline mode is enabled.
+     * @param wsdl WSDL to check
+     * @return lockfile if all files match it, null if they need to be downloaded
+     */
+    protected LockFile findUpToDateLockFile(Wsdl wsdl) {
+        if ((this.lockfile == false) && (this.offline == false)) {
+            return null;
+        }
+        Path lockfilePath = Paths.get(this.folder + wsdl.getBasename() + ".lock");
+        LockFile existingLockFile = LockFile.read(lockfilePath);
+        if ((existingLockFile != null) && existingLockFile.verify(lockfilePath.getParent(), wsdl.getWsdlLocation(),
+                this.configurationFingerprint(), getLog())) {
+            getLog().info("all files match lockfile " + lockfilePath + ", skipping download");
+            return existingLockFile;
+        }
+        if (this.offline) {
+            getLog().warn("offline, but files do not match lockfile " + lockfilePath
+                    + ", only local sources are read");
+        }
+        return null;
+    }
 
-                // let's assign a unique local name to each schema
-                int xsdIndex = 0;
-                int xsdCount = resolvedSchemas.size();
-                for (SchemaFile oneFile : resolvedSchemas.values()) {
-                    String tmpName = this.basename + "_" + StringUtils.formatLeadingZeros(xsdIndex, xsdCount) + ".xsd";
-                    oneFile.setTemporaryName(tmpName);
-                    xsdIndex++;
+    /**
+     * Returns the fingerprint of all parameters affecting the written files, so files written with another
+     * configuration do not match the lockfile.
+     * @return SHA-256 hash of the output affecting parameters
+     */
+    protected String configurationFingerprint() {
+        List<String> parameters = new ArrayList<>();
+        parameters.add("downloaderClass=" + this.downloaderClass);
+        parameters.add("downloaderOptions=" + this.downloaderOptions);
+        parameters.add("streaming=" + this.streaming);
+        parameters.add("deduplicate=" + this.deduplicate);
+        parameters.add("catalogs=" + this.catalogs);
+        parameters.add("naming=" + this.naming);
+        // schemas shared by several WSDLs are named after the first one referencing them
+        parameters.add("wsdl=" + this.wsdlLocation + "\t" + this.basename);
+        if (this.wsdls != null) {
+            for (Wsdl oneWsdl : this.wsdls) {
+                if (oneWsdl != null) {
+                    parameters.add("wsdl=" + oneWsdl.getWsdlLocation() + "\t" + oneWsdl.getBasename());
                 }
+            }
+        }
+        return HashUtils.sha256Hex(String.join("\n", parameters).getBytes(StandardCharsets.UTF_8));
+    }
 
-                // scan each schema file again and replace the schema location with the temporary name,
-                //   based on the namespace
-                for (SchemaFile oneFile : resolvedSchemas.values()) {
-                    Document oneDocument = oneFile.getDocument();
-                    if (oneDocument == null) {
-                        continue;
-                    }
-                    List<Node> schemaLocationNodes = XmlUtils.findNodesWithAttribute(oneDocument,
-                            "schemaLocation");
-                    if ((schemaLocationNodes != null) && (schemaLocationNodes.isEmpty() == false)) {
-                        for (Node oneNode : schemaLocationNodes) {
-                            String namespace = XmlUtils.getAttributeTextByName(oneNode, "namespace");
-                            if (StringUtils.isEmpty(namespace) == false) {
-                                SchemaFile referencedFile = resolvedSchemas.get(namespace);
-                                if (referencedFile != null) {
-                                    String tmpSchemaLocation = referencedFile.getTemporaryName();
-                                    XmlUtils.setAttributeTextByName(oneNode, "schemaLocation",
-                                            tmpSchemaLocation);
-                                } else {
-                                    getLog().warn("no schema location changed for '" + namespace + "'");
-                                }
-                            }
+    /**
+     * Downloads the given WSDLs and all referenced schemas. The WSDLs are resolved concurrently, sharing
+     * one crawler, so schemas referenced by more than one WSDL are downloaded and written only once.
+     * Each WSDL is written as soon as it and all WSDLs before it are resolved, while the others are still
+     * resolved, and its files are released once written.
+     * If a file could not be fetched, the other files are written anyway, but no lockfile.
+     * @param downloader opened downloader to use
+     * @param wsdlList   WSDLs to download
+     * @param lockFiles  lockfiles by WSDL basename, the ones of written WSDLs will be added
+     * @return true if all files were downloaded and written, false otherwise
+     */
+    protected boolean downloadWsdls(IDownloader downloader, List<Wsdl> wsdlList, Map<String, LockFile> lockFiles) {
+        boolean complete = false;
+        ExecutorService wsdlExecutor = null;
+        MetricsCollector metrics = new MetricsCollector();
+        downloader.setMetrics(metrics);
+        SchemaNaming schemaNaming;
+        try {
+            schemaNaming = new SchemaNaming(this.naming);
+        } catch (IllegalArgumentException ex) {
+            getLog().error(ex.getMessage());
+            return false;
+        }
+        try (SchemaCrawler crawler = new SchemaCrawler(downloader, this.downloaderOptions, getLog(),
+                this.maxParallelDownloads)) {
+            crawler.setStreaming(this.streaming);
+            crawler.setDeduplicate(this.deduplicate);
+            crawler.setMetrics(metrics);
+            crawler.setCatalog(XmlCatalog.load(this.catalogs, getLog()));
+
+            // resolve all WSDLs, concurrently if there is more than one
+            List<Future<ResolvedWsdl>> futures = new ArrayList<>();
+            if (wsdlList.size() == 1) {
+                futures.add(CompletableFuture.completedFuture(this.resolveWsdl(crawler, wsdlList.get(0))));
+            } else {
+                int wsdlThreads = Math.min(wsdlList.size(), Math.max(this.maxParallelDownloads, 1));
+                wsdlExecutor = WorkerThreads.newExecutor("mvndlwsdl-wsdl-", wsdlThreads);
+                // the executor is not bounded on Java 21, so the number of running crawls is limited here
+                Semaphore crawlPermits = new Semaphore(wsdlThreads);
+                for (Wsdl oneWsdl : wsdlList) {
+                    futures.add(wsdlExecutor.submit(() -> {
+                        crawlPermits.acquire();
+                        try {
+                            return this.resolveWsdl(crawler, oneWsdl);
+                        } finally {
+                            crawlPermits.release();
                         }
-                    }
+                    }));
                 }
+            }
 
-                // also process the WSDL file
-                for (Node wsdlXsdNodes : externalXsdNodes) {
-                    String namespace = XmlUtils.getAttributeTextByName(wsdlXsdNodes, "namespace");
-                    if (StringUtils.isEmpty(namespace) == false) {
-                        SchemaFile referencedFile = resolvedSchemas.get(namespace);
-                        if (referencedFile != null) {
-                            String tmpSchemaLocation = referencedFile.getTemporaryName();
-                            XmlUtils.setAttributeTextByName(wsdlXsdNodes, "schemaLocation", tmpSchemaLocation);
-                        }
-                    }
+            // assign names and write files in configuration order, so the output does not depend on timing
+            boolean written = true;
+            Set<SchemaFile> writtenSchemas = Collections.newSetFromMap(new IdentityHashMap<>());
+            Map<String, LockFile> newLockFiles = new LinkedHashMap<>();
+            for (Future<ResolvedWsdl> oneFuture : futures) {
+                ResolvedWsdl oneResolvedWsdl = oneFuture.get();
+                if (oneResolvedWsdl.getWsdlFile() == null) {
+                    getLog().error("file not fetched from '" + oneResolvedWsdl.getWsdl().getWsdlLocation() + "'");
+                    written = false;
+                    continue;
+                }
+                this.assignNames(oneResolvedWsdl, schemaNaming);
+                LockFile newLockFile = this.writeWsdl(oneResolvedWsdl, writtenSchemas, metrics);
+                if (newLockFile != null) {
+                    newLockFiles.put(oneResolvedWsdl.getWsdl().getBasename(), newLockFile);
+                } else {
+                    written = false;
                 }
             }
 
-            // write WSDL file
-            String wsdlOutputFullname = this.folder + this.basename + ".wsdl";
-            XmlUtils.writeXmlToFile(wsdlDocument, wsdlOutputFullname);
-            getLog().info("written WSDL file: " + wsdlOutputFullname);
+            if (crawler.getDuplicateCount() > 0) {
+                getLog().info(crawler.getDuplicateCount() + " download(s) with identical content stored once");
+            }
 
-            // write schema files
-            if (resolvedSchemas.isEmpty() == false) {
-                for (SchemaFile oneSchemaFile : resolvedSchemas.values()) {
-                    if ((oneSchemaFile != null) && (oneSchemaFile.getDocument() != null)) {
-                        String oneFilename = oneSchemaFile.getTemporaryName();
-                        if (StringUtils.isEmpty(oneFilename) == false) {
-                            String outputFullname = this.folder + oneFilename;
-                            Path path = Paths.get(outputFullname);
-                            path.toFile().getParentFile().mkdirs();
-                            if (XmlUtils.writeXmlToFile(oneSchemaFile.getDocument(), outputFullname)) {
-                                getLog().info("schema written to: " + outputFullname);
-                            } else {
-                                getLog().error("could not write schema to: " + outputFullname);
-                            }
-                        }
-                    }
+            // a partial set must not be pinned by lockfile
+            complete = crawler.getFailedLocations().isEmpty() && written;
+            for (String oneLocation : crawler.getFailedLocations()) {
+                getLog().error("could not fetch schema from '" + oneLocation + "'");
+            }
+            lockFiles.putAll(newLockFiles);
+            if (this.lockfile && complete) {
+                for (Map.Entry<String, LockFile> oneEntry : newLockFiles.entrySet()) {
+                    Path lockfilePath = Paths.get(this.folder + oneEntry.getKey() + ".lock");
+                    oneEntry.getValue().write(lockfilePath);
+                    getLog().info("lockfile written to: " + lockfilePath);
                 }
             }
+            if (complete == false) {
+                getLog().error("schema set is incomplete" + (this.lockfile ? ", no lockfile written" : ""));
+            }
 
         } catch (Exception ex) {
             getLog().error("error: " + ex);
+            complete = false;
+        } finally {
+            if (wsdlExecutor != null) {
+                wsdlExecutor.shutdownNow();
+            }
+        }
+        this.reportMetrics(metrics);
+        return complete;
+    }
+
+    /**
+     * Logs the metrics summary and writes the metrics report, if configured.
+     * @param metrics collected metrics
+     */
+    protected void reportMetrics(MetricsCollector metrics) {
+        metrics.finish();
+        getLog().info("metrics: " + metrics.createSummary());
+        if (StringUtils.isEmpty(this.metricsReport) == false) {
+            Path reportPath = Paths.get(this.metricsReport);
+            try {
+                metrics.writeReport(reportPath);
+                getLog().info("metrics report written to: " + reportPath);
+            } catch (IOException ex) {
+                getLog().warn("could not write metrics report to '" + reportPath + "': " + ex);
+            }
+        }
+    }
+
+    /**
+     * Downloads one WSDL and resolves all referenced schemas.
+     * @param crawler crawler to use
+     * @param wsdl    WSDL to resolve
+     * @return resolved WSDL, the WSDL file is null if it could not be fetched
+     * @throws InterruptedException if interrupted while waiting for downloads
+     */
+    protected ResolvedWsdl resolveWsdl(SchemaCrawler crawler, Wsdl wsdl) throws InterruptedException {
+        // download WSDL file
+        SchemaFile wsdlFile = crawler.fetchRoot(wsdl.getWsdlLocation());
+        Map<String, SchemaFile> resolvedSchemas = new LinkedHashMap<>();
+        if (wsdlFile != null) {
+            List<SchemaReference> wsdlReferences = wsdlFile.getReferences();
+            getLog().info("found " + wsdlReferences.size() + " node(s) with external schema in WSDL '"
+                    + wsdl.getWsdlLocation() + "'");
+            if (wsdlReferences.isEmpty() == false) {
+                // download files from WSDL and all schemas referenced by them
+                resolvedSchemas = crawler.crawl(wsdlFile.getSourceUrl(), wsdlReferences);
+            }
+        }
+        return new ResolvedWsdl(wsdl, wsdlFile, resolvedSchemas);
+    }
+
+    /**
+     * Assigns a unique local name to each resolved schema of the given WSDL which has no name yet, by naming
+     * strategy. Schemas already named by a previous WSDL keep their name.
+     * @param resolvedWsdl resolved WSDL
+     * @param schemaNaming naming strategy, shared by all WSDLs
+     */
+    protected void assignNames(ResolvedWsdl resolvedWsdl, SchemaNaming schemaNaming) {
+        List<SchemaFile> unnamedSchemas = new ArrayList<>();
+        for (SchemaFile oneFile : resolvedWsdl.getResolvedSchemas().values()) {
+            // identical content can be resolved for more than one namespace
+            if ((schemaNaming.contains(oneFile) == false) && (unnamedSchemas.contains(oneFile) == false)) {
+                unnamedSchemas.add(oneFile);
+            }
+        }
+        String wsdlBasename = resolvedWsdl.getWsdl().getBasename();
+        int xsdIndex = 0;
+        for (SchemaFile oneFile : unnamedSchemas) {
+            schemaNaming.add(wsdlBasename, xsdIndex, unnamedSchemas.size(), oneFile);
+            xsdIndex++;
+        }
+        for (Map.Entry<SchemaFile, String> oneName : schemaNaming.createNames().entrySet()) {
+            oneName.getKey().setTemporaryName(oneName.getValue());
+        }
+    }
+
+    /**
+     * Writes the WSDL file and all its schema files not written yet, and releases the written files.
+     * Schemas shared with WSDLs written before are already written, with the resolved schemas of the first
+     * WSDL referencing them.
+     * @param resolvedWsdl   resolved WSDL with named schemas
+     * @param writtenSchemas schemas already written, will be updated
+     * @param metrics        metrics collector
+     * @return lockfile listing all files of the WSDL, or null if not all files were written
+     */
+    protected LockFile writeWsdl(ResolvedWsdl resolvedWsdl, Set<SchemaFile> writtenSchemas,
+                                 MetricsCollector metrics) {
+        boolean written = true;
+        String wsdlBasename = resolvedWsdl.getWsdl().getBasename();
+        Map<String, SchemaFile> resolvedSchemas = resolvedWsdl.getResolvedSchemas();
+
+        // write WSDL file, replacing the schema locations with the temporary names
+        String wsdlOutputFullname = this.folder + wsdlBasename + ".wsdl";
+        if (this.writeFile(resolvedWsdl.getWsdlFile(), wsdlOutputFullname, resolvedSchemas, metrics)) {
+            getLog().info("written WSDL file: " + wsdlOutputFullname);
+            resolvedWsdl.getWsdlFile().release();
+        } else {
+            getLog().error("could not write WSDL to: " + wsdlOutputFullname);
+            written = false;
+        }
+        Path outputFolder = Paths.get(wsdlOutputFullname).getParent();
+        LockFile newLockFile = new LockFile(this.configurationFingerprint());
+        newLockFile.add(outputFolder, wsdlBasename + ".wsdl", resolvedWsdl.getWsdl().getWsdlLocation());
+
+        // write schema files
+        Set<SchemaFile> lockedSchemas = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (SchemaFile oneSchemaFile : resolvedSchemas.values()) {
+            if ((oneSchemaFile != null) && lockedSchemas.add(oneSchemaFile)) {
+                String oneFilename = oneSchemaFile.getTemporaryName();
+                if (StringUtils.isEmpty(oneFilename) == false) {
+                    if (writtenSchemas.contains(oneSchemaFile)) {
+                        newLockFile.add(outputFolder, oneFilename, oneSchemaFile.getSourceUrl());
+                        continue;
+                    }
+                    String outputFullname = this.folder + oneFilename;
+                    Path path = Paths.get(outputFullname);
+                    path.toFile().getParentFile().mkdirs();
+                    if (this.writeFile(oneSchemaFile, outputFullname, resolvedSchemas, metrics)) {
+                        getLog().info("schema written to: " + outputFullname);
+                        // later WSDLs only reference the written file
+                        oneSchemaFile.release();
+                        writtenSchemas.add(oneSchemaFile);
+                        newLockFile.add(outputFolder, oneFilename, oneSchemaFile.getSourceUrl());
+                    } else {
+                        getLog().error("could not write schema to: " + outputFullname);
+                        written = false;
+                    }
+                }
+            }
+        }
+
+        return written ? newLockFile : null;
+    }
+
+    /**
+     * Writes the given file, replacing the schema locations with the temporary name of the referenced schema,
+     * based on the namespace. Parsed documents are changed and serialized, streamed files are copied.
+     * @param file            file to write
+     * @param outputFullname  output filename
+     * @param resolvedSchemas resolved schemas by namespace
+     * @param metrics         metrics collector, for rewrite and write time
+     * @return true on success, false on error
+     */
+    protected boolean writeFile(SchemaFile file, String outputFullname, Map<String, SchemaFile> resolvedSchemas,
+                                MetricsCollector metrics) {
+        ResourceMetrics fileMetrics = metrics.get(file.getSourceUrl());
+        Document oneDocument = file.getDocument();
+        if (oneDocument != null) {
+            long rewriteStart = System.nanoTime();
+            for (SchemaReference oneReference : file.getReferences()) {
+                String tmpSchemaLocation = this.findTemporaryName(oneReference.getNamespace(), resolvedSchemas);
+                if (tmpSchemaLocation != null) {
+                    XmlUtils.setAttributeTextByName(oneReference.getNode(), "schemaLocation", tmpSchemaLocation);
+                }
+            }
+            long writeStart = System.nanoTime();
+            fileMetrics.setRewriteNanos(writeStart - rewriteStart);
+            boolean written = XmlUtils.writeXmlToFile(oneDocument, outputFullname);
+            fileMetrics.setWriteNanos(System.nanoTime() - writeStart);
+            return written;
+        }
+        if (file.getContentFile() != null) {
+            try {
+                // rewriting is part of the streamed copy
+                long writeStart = System.nanoTime();
+                XmlStreamUtils.copyRewritingSchemaLocations(file.getContentFile().toPath(), Paths.get(outputFullname),
+                        reference -> this.findTemporaryName(reference.getNamespace(), resolvedSchemas));
+                fileMetrics.setWriteNanos(System.nanoTime() - writeStart);
+                return true;
+            } catch (Exception ex) {
+                getLog().error("could not write '" + outputFullname + "': " + ex);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the temporary name of the schema with the given namespace.
+     * @param namespace       namespace
+     * @param resolvedSchemas resolved schemas by namespace
+     * @return temporary name or null if namespace is empty or unknown
+     */
+    protected String findTemporaryName(String namespace, Map<String, SchemaFile> resolvedSchemas) {
+        if (StringUtils.isEmpty(namespace)) {
+            return null;
+        }
+        SchemaFile referencedFile = resolvedSchemas.get(namespace);
+        if (referencedFile == null) {
+            getLog().warn("no schema location changed for '" + namespace + "'");
+            return null;
+        }
+        return referencedFile.getTemporaryName();
+    }
+
+    /**
+     * WSDL with its downloaded file and resolved schemas.
+     */
+    protected static class ResolvedWsdl {
+
+        /**
+         * Configured WSDL.
+         */
+        protected final Wsdl wsdl;
+        /**
+         * Downloaded WSDL file, null if it could not be fetched.
+         */
+        protected final SchemaFile wsdlFile;
+        /**
+         * Resolved schemas by namespace.
+         */
+        protected final Map<String, SchemaFile> resolvedSchemas;
+
+        /**
+         * Creates a new instance.
+         * @param wsdl            configured WSDL
+         * @param wsdlFile        downloaded WSDL file, null if it could not be fetched
+         * @param resolvedSchemas resolved schemas by namespace
+         */
+        public ResolvedWsdl(Wsdl wsdl, SchemaFile wsdlFile, Map<String, SchemaFile> resolvedSchemas) {
+            this.wsdl = wsdl;
+            this.wsdlFile = wsdlFile;
+            this.resolvedSchemas = resolvedSchemas;
+        }
+
+        /**
+         * Returns the configured WSDL.
+         * @return configured WSDL
+         */
+        public Wsdl getWsdl() {
+            return wsdl;
+        }
+
+        /**
+         * Returns the downloaded WSDL file.
+         * @return downloaded WSDL file, null if it could not be fetched
+         */
+        public SchemaFile getWsdlFile() {
+            return wsdlFile;
+        }
+
+        /**
+         * Returns the resolved schemas.
+         * @return resolved schemas by namespace
+         */
+        public Map<String, SchemaFile> getResolvedSchemas() {
+            return resolvedSchemas;
         }
 
     }
@@ -0,0 +1,66 @@
+package com.nilscoding.maven.mvndlwsdl;
+
+/**
+ * One WSDL to download, configured as element of parameter <code>wsdls</code>.
+ * @author NilsCoding
+ */
+public class Wsdl {
+
+    /**
+     * Location of WSDL file.
+     */
+    protected String wsdlLocation;
+    /**
+     * Base name for the output files.
+     */
+    protected String basename;
+
+    /**
+     * Creates a new instance.
+     */
+    public Wsdl() {
+    }
+
+    /**
+     * Creates a new instance with given values.
+     * @param wsdlLocation location of WSDL file
+     * @param basename     base name for the output files
+     */
+    public Wsdl(String wsdlLocation, String basename) {
+        this.wsdlLocation = wsdlLocation;
+        this.basename = basename;
+    }
+
+    /**
+     * Returns the location of WSDL file.
+     * @return location of WSDL file
+     */
+    public String getWsdlLocation() {
+        return wsdlLocation;
+    }
+
+    /**
+     * Sets the location of WSDL file.
+     * @param wsdlLocation location of WSDL file
+     */
+    public void setWsdlLocation(String wsdlLocation) {
+        this.wsdlLocation = wsdlLocation;
+    }
+
+    /**
+     * Returns the base name for the output files.
+     * @return base name for the output files
+     */
+    public String getBasename() {
+        return basename;
+    }
+
+    /**
+     * Sets the base name for the output files.
+     * @param basename base name for the output files
+     */
+    public void setBasename(String basename) {
+        this.basename = basename;
+    }
+
+}
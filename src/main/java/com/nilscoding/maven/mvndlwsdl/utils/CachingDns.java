@@ -0,0 +1,84 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import okhttp3.Dns;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DNS resolver caching successful lookups for a fixed time.
+ * @author NilsCoding
+ */
+public class CachingDns implements Dns {
+
+    /**
+     * Delegate to resolve uncached host names.
+     */
+    protected final Dns delegate;
+    /**
+     * Time to live of cached entries in milliseconds.
+     */
+    protected final long ttlMillis;
+    /**
+     * Cached entries by host name.
+     */
+    protected final Map<String, CachedLookup> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new instance.
+     * @param delegate  delegate to resolve uncached host names
+     * @param ttlMillis time to live of cached entries in milliseconds
+     */
+    public CachingDns(Dns delegate, long ttlMillis) {
+        this.delegate = delegate;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Returns the addresses of the given host name, using the cached addresses if not expired.
+     * @param hostname host name
+     * @return addresses
+     * @throws UnknownHostException if host cannot be resolved
+     */
+    @Override
+    public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        long now = System.currentTimeMillis();
+        CachedLookup cached = this.cache.get(hostname);
+        if ((cached != null) && (cached.expiresAt > now)) {
+            return cached.addresses;
+        }
+        List<InetAddress> addresses = this.delegate.lookup(hostname);
+        if (this.ttlMillis > 0) {
+            this.cache.put(hostname, new CachedLookup(Collections.unmodifiableList(addresses), now + this.ttlMillis));
+        }
+        return addresses;
+    }
+
+    /**
+     * Cached lookup result.
+     */
+    protected static final class CachedLookup {
+        /**
+         * Resolved addresses.
+         */
+        private final List<InetAddress> addresses;
+        /**
+         * Expiration timestamp.
+         */
+        private final long expiresAt;
+
+        /**
+         * Creates a new instance.
+         * @param addresses resolved addresses
+         * @param expiresAt expiration timestamp
+         */
+        CachedLookup(List<InetAddress> addresses, long expiresAt) {
+            this.addresses = addresses;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+}
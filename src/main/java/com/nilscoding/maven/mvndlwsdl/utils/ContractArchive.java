@@ -0,0 +1,144 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import org.apache.maven.plugin.logging.Log;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+/**
+ * Contract archive: a jar file with a set of written WSDL and schema files, and one lockfile per WSDL
+ * as manifest of its files, their hashes and source URLs.
+ * @author NilsCoding
+ */
+public final class ContractArchive {
+
+    /**
+     * Manifest attribute listing the WSDL files of the archive.
+     */
+    public static final String WSDLS_ATTRIBUTE = "Contract-Wsdls";
+
+    /**
+     * Modification time of all entries, so an unchanged set results in an identical archive.
+     */
+    private static final long ENTRY_TIME = LocalDateTime.parse("1980-02-01T00:00:00")
+            .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+    /**
+     * Size of copy buffer.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    private ContractArchive() {
+    }
+
+    /**
+     * Writes the contract archive, only if its content changed. Files shared by more than one WSDL are stored once.
+     * @param archive   archive file to write
+     * @param folder    output folder containing the files
+     * @param lockFiles lockfiles by WSDL basename, listing the files of each WSDL
+     * @throws IOException on read or write errors
+     */
+    public static void write(Path archive, Path folder, Map<String, LockFile> lockFiles) throws IOException {
+        Manifest manifest = new Manifest();
+        Attributes attributes = manifest.getMainAttributes();
+        attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        attributes.putValue("Created-By", "mvn-download-wsdl");
+        attributes.putValue(WSDLS_ATTRIBUTE, String.join(" ", lockFiles.keySet()));
+        ByteArrayOutputStream archiveBytes = new ByteArrayOutputStream();
+        try (JarOutputStream out = new JarOutputStream(archiveBytes)) {
+            out.putNextEntry(newEntry(JarFile.MANIFEST_NAME));
+            manifest.write(out);
+            out.closeEntry();
+            Set<String> writtenNames = new HashSet<>();
+            for (Map.Entry<String, LockFile> oneSet : lockFiles.entrySet()) {
+                for (LockFile.Entry oneEntry : oneSet.getValue().getEntries()) {
+                    if (writtenNames.add(oneEntry.getFilename())) {
+                        out.putNextEntry(newEntry(oneEntry.getFilename()));
+                        Files.copy(folder.resolve(oneEntry.getFilename()), out);
+                        out.closeEntry();
+                    }
+                }
+                out.putNextEntry(newEntry(oneSet.getKey() + ".lock"));
+                out.write(oneSet.getValue().toBytes());
+                out.closeEntry();
+            }
+        }
+        FileUtils.writeIfChanged(archive, archiveBytes.toByteArray());
+    }
+
+    /**
+     * Creates a new archive entry with fixed modification time.
+     * @param name entry name
+     * @return archive entry
+     */
+    private static JarEntry newEntry(String name) {
+        JarEntry entry = new JarEntry(name);
+        entry.setTime(ENTRY_TIME);
+        return entry;
+    }
+
+    /**
+     * Extracts all files of the contract archive to the given folder, except the <code>META-INF</code> folder.
+     * Files are written only if their content changed.
+     * @param archive archive file
+     * @param folder  output folder
+     * @param log     logging
+     * @return number of extracted files
+     * @throws IOException on read or write errors, or if an entry would be written outside of the folder
+     */
+    public static int extract(Path archive, Path folder, Log log) throws IOException {
+        Path outputFolder = folder.toAbsolutePath().normalize();
+        int count = 0;
+        try (JarFile jarFile = new JarFile(archive.toFile())) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry oneEntry = entries.nextElement();
+                if (oneEntry.isDirectory() || oneEntry.getName().startsWith("META-INF/")) {
+                    continue;
+                }
+                Path target = outputFolder.resolve(oneEntry.getName()).normalize();
+                if (target.startsWith(outputFolder) == false) {
+                    throw new IOException("archive entry outside of output folder: " + oneEntry.getName());
+                }
+                try (InputStream in = jarFile.getInputStream(oneEntry)) {
+                    ByteArrayOutputStream content = new ByteArrayOutputStream();
+                    copy(in, content);
+                    FileUtils.writeIfChanged(target, content.toByteArray());
+                }
+                log.debug("extracted: " + target);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Copies the given stream.
+     * @param in  input stream
+     * @param out output stream
+     * @throws IOException on read or write errors
+     */
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int len;
+        while ((len = in.read(buffer)) != -1) {
+            out.write(buffer, 0, len);
+        }
+    }
+
+}
@@ -1,6 +1,12 @@
 package com.nilscoding.maven.mvndlwsdl.utils;
 
 import org.apache.maven.plugin.logging.Log;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Download utils.
@@ -12,18 +18,36 @@ public final class DownloadUtils {
     }
 
     /**
-     * Downloads the content from the given URL to a string.
-     * @param url               URL to download from
-     * @param log               logging
-     * @param downloaderClass   class name of downloader, empty for default
-     * @param downloaderOptions downloader options
-     * @return URL content as string or null
+     * Creates the downloader to use. If a class name is given, a registered service provider with
+     * this class name is used, otherwise the class is created via reflection. Without class name,
+     * the first registered service provider other than the default downloader is used.
+     * Falls back to the default downloader (<code>OkHttp3Downloader</code>).
+     * @param downloaderClass class name of downloader, empty for default
+     * @param log             logging
+     * @return downloader, never null
      */
-    public static String download(String url, Log log, String downloaderClass, String downloaderOptions) {
+    public static IDownloader createDownloader(String downloaderClass, Log log) {
         IDownloader downloaderImpl = null;
+        ClassLoader classLoader = DownloadUtils.class.getClassLoader();
+        try {
+            Iterator<IDownloader> providers = ServiceLoader.load(IDownloader.class, classLoader).iterator();
+            while ((downloaderImpl == null) && providers.hasNext()) {
+                IDownloader provider = providers.next();
+                String providerClass = provider.getClass().getName();
+                if (StringUtils.isEmpty(downloaderClass)) {
+                    if (provider instanceof OkHttp3Downloader == false) {
+                        downloaderImpl = provider;
+                    }
+                } else if (providerClass.equals(downloaderClass.trim())) {
+                    downloaderImpl = provider;
+                }
+            }
+        } catch (ServiceConfigurationError err) {
+            log.warn("could not load downloader service providers: " + err);
+        }
         try {
-            if (StringUtils.isEmpty(downloaderClass) == false) {
-                Class<?> clazz = Class.forName(downloaderClass);
+            if ((downloaderImpl == null) && (StringUtils.isEmpty(downloaderClass) == false)) {
+                Class<?> clazz = Class.forName(downloaderClass.trim(), true, classLoader);
                 Object downloaderImplObj = clazz.getDeclaredConstructor().newInstance();
                 if (downloaderImplObj instanceof IDownloader) {
                     downloaderImpl = (IDownloader) downloaderImplObj;
@@ -35,6 +59,42 @@ public final class DownloadUtils {
         if (downloaderImpl == null) {
             downloaderImpl = new OkHttp3Downloader();
         }
+        return downloaderImpl;
+    }
+
+    /**
+     * Creates and opens the downloader to use.
+     * @param downloaderClass   class name of downloader, empty for default
+     * @param downloaderOptions downloader options
+     * @param log               logging
+     * @return opened downloader
+     * @throws Exception if downloader could not be opened
+     */
+    public static IDownloader openDownloader(String downloaderClass, String downloaderOptions, Log log)
+            throws Exception {
+        IDownloader downloaderImpl = createDownloader(downloaderClass, log);
+        if ((downloaderImpl instanceof NioDownloader) == false) {
+            // local sources never touch the configured downloader
+            downloaderImpl = new NioDownloader(downloaderImpl);
+        }
+        try {
+            downloaderImpl.open(log, downloaderOptions);
+        } catch (Exception ex) {
+            downloaderImpl.close();
+            throw ex;
+        }
+        return downloaderImpl;
+    }
+
+    /**
+     * Downloads the content from the given URL to a string, using an opened downloader.
+     * @param downloaderImpl    opened downloader
+     * @param url               URL to download from
+     * @param log               logging
+     * @param downloaderOptions downloader options
+     * @return URL content as string or null
+     */
+    public static String download(IDownloader downloaderImpl, String url, Log log, String downloaderOptions) {
         try {
             return downloaderImpl.downloadFile(url, log, downloaderOptions);
         } catch (Throwable ex) {
@@ -43,4 +103,82 @@ public final class DownloadUtils {
         }
     }
 
+    /**
+     * Downloads the content from the given URL as raw bytes, using an opened downloader.
+     * @param downloaderImpl    opened downloader
+     * @param url               URL to download from
+     * @param log               logging
+     * @param downloaderOptions downloader options
+     * @return URL content or null
+     */
+    public static byte[] downloadBytes(IDownloader downloaderImpl, String url, Log log, String downloaderOptions) {
+        try {
+            return downloaderImpl.downloadBytes(url, log, downloaderOptions);
+        } catch (Throwable ex) {
+            log.error("could not fetch file from '" + url + "': " + ex, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Downloads the content from the given URL to a local file, using an opened downloader.
+     * @param downloaderImpl    opened downloader
+     * @param url               URL to download from
+     * @param log               logging
+     * @param downloaderOptions downloader options
+     * @param target            local file to write to
+     * @return true if file was downloaded, false otherwise
+     */
+    public static boolean downloadToFile(IDownloader downloaderImpl, String url, Log log, String downloaderOptions,
+                                         Path target) {
+        try {
+            return downloaderImpl.downloadToFile(url, log, downloaderOptions, target);
+        } catch (Throwable ex) {
+            log.error("could not fetch file from '" + url + "': " + ex, ex);
+            return false;
+        }
+    }
+
+    /**
+     * Downloads the content from the given URL as raw bytes asynchronously, using an opened downloader.
+     * @param downloaderImpl    opened downloader
+     * @param url               URL to download from
+     * @param log               logging
+     * @param downloaderOptions downloader options
+     * @param executor          executor for blocking work
+     * @return future of URL content or null, never completed exceptionally
+     */
+    public static CompletableFuture<byte[]> downloadBytesAsync(IDownloader downloaderImpl, String url, Log log,
+                                                               String downloaderOptions, Executor executor) {
+        CompletableFuture<byte[]> future;
+        try {
+            future = downloaderImpl.downloadBytesAsync(url, log, downloaderOptions, executor);
+        } catch (Throwable ex) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+        }
+        return future.exceptionally(ex -> {
+            log.error("could not fetch file from '" + url + "': " + ex, ex);
+            return null;
+        });
+    }
+
+    /**
+     * Downloads the content from the given URL to a string.
+     * A downloader is created, opened and closed for this download only.
+     * @param url               URL to download from
+     * @param log               logging
+     * @param downloaderClass   class name of downloader, empty for default
+     * @param downloaderOptions downloader options
+     * @return URL content as string or null
+     */
+    public static String download(String url, Log log, String downloaderClass, String downloaderOptions) {
+        try (IDownloader downloaderImpl = openDownloader(downloaderClass, downloaderOptions, log)) {
+            return download(downloaderImpl, url, log, downloaderOptions);
+        } catch (Throwable ex) {
+            log.error("could not fetch file from '" + url + "': " + ex, ex);
+            return null;
+        }
+    }
+
 }
@@ -0,0 +1,194 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * File utils: write-avoiding, atomic output. Unchanged files are not touched, so their timestamps stay
+ * the same and downstream staleness checks (e.g. of <code>wsimport</code>) do not regenerate anything.
+ * @author NilsCoding
+ */
+public final class FileUtils {
+
+    /**
+     * Marker in names of temporary files, followed by a random part.
+     */
+    private static final String TEMP_FILE_MARKER = ".mvndlwsdl-";
+
+    /**
+     * Suffix of temporary files.
+     */
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private FileUtils() {
+    }
+
+    /**
+     * Writes the given content to the target file, if the file does not exist or its content differs.
+     * The content is written to a temporary file in the same folder, which is then moved atomically.
+     * @param target  target file
+     * @param content content to write
+     * @return true if file was written, false if it was unchanged
+     * @throws IOException on write errors
+     */
+    public static boolean writeIfChanged(Path target, byte[] content) throws IOException {
+        if (hasContent(target, content)) {
+            return false;
+        }
+        Path tempFile = createTempFileFor(target);
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException ex) {
+            Files.deleteIfExists(tempFile);
+            throw ex;
+        }
+        moveAtomically(tempFile, target);
+        return true;
+    }
+
+    /**
+     * Creates a temporary file in the folder of the given target file, so it can be moved atomically.
+     * Parent folders are created if needed. Unlike <code>Files.createTempFile</code>, the file is created
+     * with default permissions (following the umask), and gets the permissions of an existing target file.
+     * @param target target file
+     * @return temporary file
+     * @throws IOException if the file could not be created
+     */
+    public static Path createTempFileFor(Path target) throws IOException {
+        Path folder = target.toAbsolutePath().getParent();
+        Files.createDirectories(folder);
+        while (true) {
+            Path tempFile = folder.resolve("." + target.getFileName() + TEMP_FILE_MARKER
+                    + Long.toHexString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE) + TEMP_FILE_SUFFIX);
+            try {
+                Files.createFile(tempFile);
+            } catch (FileAlreadyExistsException ex) {
+                continue;
+            }
+            copyPermissions(target, tempFile);
+            return tempFile;
+        }
+    }
+
+    /**
+     * Deletes temporary files left directly in the given folder, e.g. by a crashed build. Subfolders are
+     * not scanned, and only files named like those of {@link #createTempFileFor(Path)} are deleted.
+     * Must only be called while no other execution writes to the folder.
+     * @param folder folder to clean up
+     * @return number of deleted files
+     * @throws IOException if the folder could not be read
+     */
+    public static int deleteTempFiles(Path folder) throws IOException {
+        if (Files.isDirectory(folder) == false) {
+            return 0;
+        }
+        List<Path> tempFiles;
+        try (Stream<Path> files = Files.list(folder)) {
+            tempFiles = files.filter(FileUtils::isTempFile).collect(Collectors.toList());
+        }
+        int deletedCount = 0;
+        for (Path oneTempFile : tempFiles) {
+            if (Files.deleteIfExists(oneTempFile)) {
+                deletedCount++;
+            }
+        }
+        return deletedCount;
+    }
+
+    /**
+     * Checks if the given file is a temporary file created by {@link #createTempFileFor(Path)}.
+     * @param file file to check
+     * @return true if temporary file
+     */
+    private static boolean isTempFile(Path file) {
+        String filename = String.valueOf(file.getFileName());
+        return filename.startsWith(".") && filename.contains(TEMP_FILE_MARKER) && filename.endsWith(TEMP_FILE_SUFFIX)
+                && Files.isRegularFile(file);
+    }
+
+    /**
+     * Copies the POSIX permissions of the source file to the target file, if the source exists and the
+     * file system supports POSIX permissions.
+     * @param source source file, may not exist
+     * @param target target file
+     * @throws IOException if permissions could not be copied
+     */
+    private static void copyPermissions(Path source, Path target) throws IOException {
+        PosixFileAttributeView sourceView = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+        if ((sourceView == null) || (Files.isRegularFile(source) == false)) {
+            return;
+        }
+        Files.setPosixFilePermissions(target, sourceView.readAttributes().permissions());
+    }
+
+    /**
+     * Replaces the target file with the given temporary file, if the target does not exist or its content
+     * differs. The temporary file is moved atomically or deleted if the target is unchanged.
+     * @param tempFile temporary file, created by {@link #createTempFileFor(Path)}
+     * @param target   target file
+     * @return true if file was replaced, false if it was unchanged
+     * @throws IOException on errors
+     */
+    public static boolean replaceIfChanged(Path tempFile, Path target) throws IOException {
+        try {
+            if (Files.isRegularFile(target)
+                    && (Files.size(target) == Files.size(tempFile))
+                    && Objects.equals(HashUtils.sha256Hex(target), HashUtils.sha256Hex(tempFile))) {
+                Files.delete(tempFile);
+                return false;
+            }
+            moveAtomically(tempFile, target);
+            return true;
+        } catch (IOException ex) {
+            Files.deleteIfExists(tempFile);
+            throw ex;
+        }
+    }
+
+    /**
+     * Checks if the given file exists with the given content, comparing size and SHA-256 hash.
+     * @param file    file to check
+     * @param content expected content
+     * @return true if file has the given content
+     * @throws IOException if the file size could not be read
+     */
+    public static boolean hasContent(Path file, byte[] content) throws IOException {
+        if ((Files.isRegularFile(file) == false) || (Files.size(file) != content.length)) {
+            return false;
+        }
+        return Objects.equals(HashUtils.sha256Hex(file), HashUtils.sha256Hex(content));
+    }
+
+    /**
+     * Moves the source file to the target atomically, replacing the target. Falls back to a non-atomic
+     * replace if the file system does not support atomic moves.
+     * @param source source file
+     * @param target target file
+     * @throws IOException on errors
+     */
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+}
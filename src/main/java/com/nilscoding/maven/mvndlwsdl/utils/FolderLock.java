@@ -0,0 +1,123 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import org.apache.maven.plugin.logging.Log;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exclusive lock on an output folder, so executions writing to the same folder do not interfere.
+ * Executions in the same JVM (parallel reactor builds) are serialized by an in-memory lock per folder,
+ * other processes by a file lock on a marker file in a lock folder (not in the output folder, so the marker file
+ * is neither packaged nor put under version control).
+ * @author NilsCoding
+ */
+public final class FolderLock implements AutoCloseable {
+
+    /**
+     * Suffix of marker files holding the file lock.
+     */
+    public static final String LOCK_FILE_SUFFIX = ".lck";
+
+    /**
+     * Number of hex digits of the folder hash in marker file names.
+     */
+    private static final int FOLDER_HASH_LENGTH = 16;
+
+    /**
+     * In-memory locks by absolute folder path, as file locks are held per JVM, not per thread.
+     */
+    private static final Map<Path, ReentrantLock> FOLDER_LOCKS = new ConcurrentHashMap<>();
+
+    /**
+     * In-memory lock, held by this instance.
+     */
+    private final ReentrantLock folderLock;
+    /**
+     * Channel of marker file, holding the file lock.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Creates a new instance.
+     * @param folderLock in-memory lock, locked
+     * @param channel    channel of marker file, locked
+     */
+    private FolderLock(ReentrantLock folderLock, FileChannel channel) {
+        this.folderLock = folderLock;
+        this.channel = channel;
+    }
+
+    /**
+     * Acquires the lock on the given folder, waiting until it is released by other executions.
+     * The folder and the lock folder are created if needed.
+     * @param folder     folder to lock
+     * @param lockFolder folder of the marker file, named by the hash of the folder path
+     * @param log        logging
+     * @return acquired lock, to be closed to release it
+     * @throws IOException if the folder or marker file could not be created or locked
+     */
+    public static FolderLock acquire(Path folder, Path lockFolder, Log log) throws IOException {
+        Path absoluteFolder = folder.toAbsolutePath().normalize();
+        ReentrantLock folderLock = FOLDER_LOCKS.computeIfAbsent(absoluteFolder, key -> new ReentrantLock());
+        if (folderLock.tryLock() == false) {
+            log.info("waiting for other execution writing to folder '" + absoluteFolder + "'");
+            folderLock.lock();
+        }
+        FileChannel channel = null;
+        try {
+            Files.createDirectories(absoluteFolder);
+            Files.createDirectories(lockFolder);
+            channel = FileChannel.open(lockFolder.resolve(lockFilename(absoluteFolder)), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+            FileLock fileLock = channel.tryLock();
+            if (fileLock == null) {
+                log.info("waiting for other process writing to folder '" + absoluteFolder + "'");
+                channel.lock();
+            }
+            return new FolderLock(folderLock, channel);
+        } catch (IOException | RuntimeException ex) {
+            if (channel != null) {
+                channel.close();
+            }
+            folderLock.unlock();
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the name of the marker file of the given folder: folder name and hash of the folder path.
+     * @param absoluteFolder absolute, normalized folder path
+     * @return marker file name
+     */
+    static String lockFilename(Path absoluteFolder) {
+        String folderHash = HashUtils.sha256Hex(absoluteFolder.toString().getBytes(StandardCharsets.UTF_8));
+        Path folderName = absoluteFolder.getFileName();
+        String prefix = (folderName == null) ? "" : folderName.toString().replaceAll("[^a-zA-Z0-9.-]+", "_") + "-";
+        return prefix + folderHash.substring(0, FOLDER_HASH_LENGTH) + LOCK_FILE_SUFFIX;
+    }
+
+    /**
+     * Releases the lock. The marker file is kept, as deleting it could break a lock just acquired by another
+     * process.
+     */
+    @Override
+    public void close() {
+        try {
+            // releases the file lock
+            this.channel.close();
+        } catch (IOException ex) {
+            // nothing left to do
+        } finally {
+            this.folderLock.unlock();
+        }
+    }
+
+}
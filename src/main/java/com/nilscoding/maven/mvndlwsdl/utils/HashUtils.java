@@ -0,0 +1,101 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hash utils.
+ * @author NilsCoding
+ */
+public final class HashUtils {
+
+    /**
+     * Size of read buffer.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Number of bits per hex digit.
+     */
+    private static final int HEX_DIGIT_BITS = 4;
+
+    /**
+     * Mask of one hex digit.
+     */
+    private static final int HEX_DIGIT_MASK = 0x0F;
+
+    /**
+     * Hex digits.
+     */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private HashUtils() {
+    }
+
+    /**
+     * Calculates the SHA-256 hash of the given data.
+     * @param data data to hash
+     * @return hash as lower case hex string or null if data is null
+     */
+    public static String sha256Hex(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        MessageDigest digest = newSha256();
+        return toHex(digest.digest(data));
+    }
+
+    /**
+     * Calculates the SHA-256 hash of the given file.
+     * @param path file to hash
+     * @return hash as lower case hex string or null if file could not be read
+     */
+    public static String sha256Hex(Path path) {
+        if ((path == null) || (Files.isRegularFile(path) == false)) {
+            return null;
+        }
+        MessageDigest digest = newSha256();
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int len;
+            while ((len = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, len);
+            }
+        } catch (IOException ex) {
+            return null;
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Converts the given bytes to a lower case hex string.
+     * @param bytes bytes to convert
+     * @return hex string
+     */
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> HEX_DIGIT_BITS) & HEX_DIGIT_MASK];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & HEX_DIGIT_MASK];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Creates a new SHA-256 message digest.
+     * @return message digest
+     */
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+}
@@ -1,12 +1,30 @@
 package com.nilscoding.maven.mvndlwsdl.utils;
 
 import org.apache.maven.plugin.logging.Log;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Interface for downloaders.
+ * Implementations can be registered as service provider (<code>META-INF/services</code>) to be
+ * discovered by <code>ServiceLoader</code>, or be referenced by class name.
+ * One instance is created per plugin execution: it will be opened once, used for all downloads
+ * and closed afterwards.
  * @author NilsCoding
  */
-public interface IDownloader {
+public interface IDownloader extends AutoCloseable {
+
+    /**
+     * Opens the downloader, configuring it with the given options. Will be called once before the first download.
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @throws Exception on configuration errors
+     */
+    default void open(Log log, String optionsStr) throws Exception {
+    }
 
     /**
      * Downloads a text file from given URL.
@@ -17,4 +35,82 @@ public interface IDownloader {
      */
     String downloadFile(String url, Log log, String optionsStr);
 
+    /**
+     * Downloads a text file from given URL asynchronously.
+     * The default implementation runs the blocking {@link #downloadFile(String, Log, String)} on the
+     * given executor, implementations with non-blocking I/O should override it.
+     * @param url        URL to download from
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @param executor   executor for blocking work
+     * @return future of downloaded text file as string, completed with null or exceptionally if download
+     *         was not possible
+     */
+    default CompletableFuture<String> downloadFileAsync(String url, Log log, String optionsStr, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> this.downloadFile(url, log, optionsStr), executor);
+    }
+
+    /**
+     * Downloads a file from given URL as raw bytes, so the XML parser can detect the encoding itself.
+     * The default implementation converts the result of {@link #downloadFile(String, Log, String)}.
+     * @param url        URL to download from
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @return downloaded file content or null if download was not possible
+     */
+    default byte[] downloadBytes(String url, Log log, String optionsStr) {
+        return XmlUtils.toUtf8Bytes(this.downloadFile(url, log, optionsStr));
+    }
+
+    /**
+     * Downloads a file from given URL as raw bytes asynchronously.
+     * The default implementation converts the result of
+     * {@link #downloadFileAsync(String, Log, String, Executor)}.
+     * @param url        URL to download from
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @param executor   executor for blocking work
+     * @return future of downloaded file content, completed with null or exceptionally if download
+     *         was not possible
+     */
+    default CompletableFuture<byte[]> downloadBytesAsync(String url, Log log, String optionsStr,
+                                                         Executor executor) {
+        return this.downloadFileAsync(url, log, optionsStr, executor).thenApply(XmlUtils::toUtf8Bytes);
+    }
+
+    /**
+     * Downloads a file from given URL to a local file, so large files do not need to be held in memory.
+     * The default implementation writes the result of {@link #downloadBytes(String, Log, String)}.
+     * @param url        URL to download from
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @param target     local file to write to
+     * @return true if file was downloaded, false if download was not possible
+     * @throws IOException on write errors
+     */
+    default boolean downloadToFile(String url, Log log, String optionsStr, Path target) throws IOException {
+        byte[] content = this.downloadBytes(url, log, optionsStr);
+        if (content == null) {
+            return false;
+        }
+        Files.write(target, content);
+        return true;
+    }
+
+    /**
+     * Sets the metrics collector, so the downloader can add details like connect time or cache status.
+     * Will be called after open, if metrics are collected. The default implementation ignores it,
+     * download time and size are measured by the caller.
+     * @param metrics metrics collector
+     */
+    default void setMetrics(MetricsCollector metrics) {
+    }
+
+    /**
+     * Closes the downloader, releasing all resources. Will be called once after the last download.
+     */
+    @Override
+    default void close() {
+    }
+
 }
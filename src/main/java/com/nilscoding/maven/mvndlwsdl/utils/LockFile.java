@@ -0,0 +1,232 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import org.apache.maven.plugin.logging.Log;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Lockfile, pinning the SHA-256 hash and source URL of every written file.
+ * Format: a header with the fingerprint of the configuration the files were written with, then one line per file
+ * with <code>hash filename url</code>, separated by tabs, the WSDL file first.
+ * @author NilsCoding
+ */
+public class LockFile {
+
+    /**
+     * Header line.
+     */
+    protected static final String HEADER = "# mvn-download-wsdl lockfile: sha256 filename url";
+
+    /**
+     * Prefix of the header line with the configuration fingerprint.
+     */
+    protected static final String CONFIGURATION_PREFIX = "# configuration: ";
+
+    /**
+     * Number of fields per line.
+     */
+    protected static final int FIELD_COUNT = 3;
+
+    /**
+     * Entries, WSDL file first.
+     */
+    protected final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Fingerprint of the configuration the files were written with.
+     */
+    protected String configuration;
+
+    /**
+     * Creates a new, empty instance.
+     */
+    public LockFile() {
+    }
+
+    /**
+     * Creates a new, empty instance for files written with the given configuration.
+     * @param configuration fingerprint of the configuration the files are written with
+     */
+    public LockFile(String configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Adds an entry for a written file, hashing its current content.
+     * @param folder   output folder
+     * @param filename filename, relative to folder
+     * @param url      source URL
+     * @return true if file was hashed and added, false otherwise
+     */
+    public boolean add(Path folder, String filename, String url) {
+        String hash = HashUtils.sha256Hex(folder.resolve(filename));
+        if (hash == null) {
+            return false;
+        }
+        this.entries.add(new Entry(hash, filename, url));
+        return true;
+    }
+
+    /**
+     * Returns the entries.
+     * @return entries, WSDL file first
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(this.entries);
+    }
+
+    /**
+     * Returns the fingerprint of the configuration the files were written with.
+     * @return configuration fingerprint, null if not known
+     */
+    public String getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Checks if this lockfile is for the given WSDL URL and configuration and all files in the folder match
+     * their pinned hashes.
+     * @param folder               output folder
+     * @param wsdlUrl              WSDL URL
+     * @param currentConfiguration fingerprint of the current configuration
+     * @param log                  logging
+     * @return true if all files are up-to-date, false otherwise
+     */
+    public boolean verify(Path folder, String wsdlUrl, String currentConfiguration, Log log) {
+        if (this.entries.isEmpty() || (this.entries.get(0).getUrl().equals(wsdlUrl) == false)) {
+            log.info("lockfile does not match WSDL location '" + wsdlUrl + "'");
+            return false;
+        }
+        if (Objects.equals(this.configuration, currentConfiguration) == false) {
+            log.info("lockfile was written with a different configuration");
+            return false;
+        }
+        for (Entry oneEntry : this.entries) {
+            String currentHash = HashUtils.sha256Hex(folder.resolve(oneEntry.getFilename()));
+            if (oneEntry.getHash().equals(currentHash) == false) {
+                log.info("file does not match lockfile: " + oneEntry.getFilename());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the lockfile, only if its content changed.
+     * @param path lockfile path
+     * @throws IOException on write errors
+     */
+    public void write(Path path) throws IOException {
+        FileUtils.writeIfChanged(path, this.toBytes());
+    }
+
+    /**
+     * Returns the content of the lockfile.
+     * @return lockfile content as UTF-8 bytes
+     */
+    public byte[] toBytes() {
+        StringBuilder sb = new StringBuilder();
+        // LF on every platform, so the lockfile does not depend on the build machine
+        sb.append(HEADER).append('\n');
+        if (this.configuration != null) {
+            sb.append(CONFIGURATION_PREFIX).append(this.configuration).append('\n');
+        }
+        for (Entry oneEntry : this.entries) {
+            sb.append(oneEntry.getHash()).append('\t').append(oneEntry.getFilename()).append('\t')
+                    .append(oneEntry.getUrl()).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a lockfile.
+     * @param path lockfile path
+     * @return lockfile or null if it does not exist or could not be read
+     */
+    public static LockFile read(Path path) {
+        if ((path == null) || (Files.isRegularFile(path) == false)) {
+            return null;
+        }
+        try {
+            LockFile lockFile = new LockFile();
+            for (String oneLine : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                if (oneLine.startsWith(CONFIGURATION_PREFIX)) {
+                    lockFile.configuration = oneLine.substring(CONFIGURATION_PREFIX.length());
+                    continue;
+                }
+                if (StringUtils.isEmpty(oneLine) || oneLine.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = oneLine.split("\t", FIELD_COUNT);
+                if (parts.length != FIELD_COUNT) {
+                    return null;
+                }
+                lockFile.entries.add(new Entry(parts[0], parts[1], parts[2]));
+            }
+            return lockFile;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Lockfile entry.
+     */
+    public static final class Entry {
+        /**
+         * SHA-256 hash of file content.
+         */
+        private final String hash;
+        /**
+         * Filename, relative to output folder.
+         */
+        private final String filename;
+        /**
+         * Source URL.
+         */
+        private final String url;
+
+        /**
+         * Creates a new instance.
+         * @param hash     SHA-256 hash of file content
+         * @param filename filename, relative to output folder
+         * @param url      source URL
+         */
+        public Entry(String hash, String filename, String url) {
+            this.hash = hash;
+            this.filename = filename;
+            this.url = url;
+        }
+
+        /**
+         * Returns the SHA-256 hash of file content.
+         * @return hash
+         */
+        public String getHash() {
+            return hash;
+        }
+
+        /**
+         * Returns the filename, relative to output folder.
+         * @return filename
+         */
+        public String getFilename() {
+            return filename;
+        }
+
+        /**
+         * Returns the source URL.
+         * @return source URL
+         */
+        public String getUrl() {
+            return url;
+        }
+    }
+
+}
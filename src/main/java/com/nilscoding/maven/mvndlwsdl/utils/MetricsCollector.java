@@ -0,0 +1,199 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the performance metrics of all resources of one execution, creates a one-line summary
+ * and writes a JSON report.
+ * @author NilsCoding
+ */
+public class MetricsCollector {
+
+    /**
+     * Number of slowest resources in summary.
+     */
+    protected static final int SUMMARY_SLOWEST_COUNT = 5;
+    /**
+     * Nanoseconds per millisecond, for reporting.
+     */
+    protected static final double NANOS_PER_MILLI = 1000000.0;
+    /**
+     * Bytes per kilobyte, for reporting.
+     */
+    protected static final double BYTES_PER_KB = 1024.0;
+
+    /**
+     * Metrics by URL.
+     */
+    protected final Map<String, ResourceMetrics> resources = new ConcurrentHashMap<>();
+    /**
+     * Start time of execution.
+     */
+    protected final long startNanos = System.nanoTime();
+    /**
+     * Wall time of execution, 0 if not finished yet.
+     */
+    protected volatile long wallNanos;
+
+    /**
+     * Creates a new instance.
+     */
+    public MetricsCollector() {
+    }
+
+    /**
+     * Returns the metrics of the given URL, creating them if needed.
+     * @param url URL of resource
+     * @return metrics of resource
+     */
+    public ResourceMetrics get(String url) {
+        return this.resources.computeIfAbsent(String.valueOf(url), ResourceMetrics::new);
+    }
+
+    /**
+     * Finishes the collection, taking the wall time.
+     */
+    public void finish() {
+        this.wallNanos = System.nanoTime() - this.startNanos;
+    }
+
+    /**
+     * Returns all metrics, in order of first use.
+     * @return metrics of all resources
+     */
+    public List<ResourceMetrics> getResources() {
+        List<ResourceMetrics> sortedResources = new ArrayList<>(this.resources.values());
+        sortedResources.sort(Comparator.comparingLong(ResourceMetrics::getCreatedNanos));
+        return sortedResources;
+    }
+
+    /**
+     * Returns the wall time of execution.
+     * @return wall time in nanoseconds, until now if not finished yet
+     */
+    public long getWallNanos() {
+        return (this.wallNanos > 0) ? this.wallNanos : (System.nanoTime() - this.startNanos);
+    }
+
+    /**
+     * Creates the one-line summary: number of requests, bytes, wall and summed time and the slowest resources.
+     * @return summary
+     */
+    public String createSummary() {
+        List<ResourceMetrics> allResources = this.getResources();
+        long totalBytes = 0;
+        long summedNanos = 0;
+        for (ResourceMetrics oneResource : allResources) {
+            totalBytes += oneResource.getBytes();
+            summedNanos += oneResource.getSummedNanos();
+        }
+        List<ResourceMetrics> slowestResources = new ArrayList<>(allResources);
+        slowestResources.sort(Comparator.comparingLong(ResourceMetrics::getSummedNanos).reversed());
+        StringBuilder sb = new StringBuilder();
+        sb.append(allResources.size()).append(" request(s), ")
+                .append(String.format(Locale.ROOT, "%.1f KB", totalBytes / BYTES_PER_KB))
+                .append(", wall ").append(TimeUnit.NANOSECONDS.toMillis(this.getWallNanos())).append(" ms")
+                .append(", summed ").append(TimeUnit.NANOSECONDS.toMillis(summedNanos)).append(" ms");
+        for (int i = 0; (i < slowestResources.size()) && (i < SUMMARY_SLOWEST_COUNT); i++) {
+            ResourceMetrics oneResource = slowestResources.get(i);
+            sb.append((i == 0) ? ", slowest: " : ", ").append(oneResource.getUrl())
+                    .append(" (").append(TimeUnit.NANOSECONDS.toMillis(oneResource.getSummedNanos())).append(" ms)");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Creates the JSON report with all metrics, times in milliseconds.
+     * @return JSON report
+     */
+    public String toJson() {
+        List<ResourceMetrics> allResources = this.getResources();
+        long totalBytes = 0;
+        long summedNanos = 0;
+        for (ResourceMetrics oneResource : allResources) {
+            totalBytes += oneResource.getBytes();
+            summedNanos += oneResource.getSummedNanos();
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"requests\": ").append(allResources.size()).append(",\n");
+        sb.append("  \"bytes\": ").append(totalBytes).append(",\n");
+        sb.append("  \"wallMillis\": ").append(toMillis(this.getWallNanos())).append(",\n");
+        sb.append("  \"summedMillis\": ").append(toMillis(summedNanos)).append(",\n");
+        sb.append("  \"resources\": [");
+        for (int i = 0; i < allResources.size(); i++) {
+            ResourceMetrics oneResource = allResources.get(i);
+            sb.append((i == 0) ? "\n" : ",\n");
+            sb.append("    {\"url\": ").append(toJsonString(oneResource.getUrl()))
+                    .append(", \"cacheStatus\": ").append(toJsonString(oneResource.getCacheStatus()))
+                    .append(", \"bytes\": ").append(oneResource.getBytes())
+                    .append(", \"dnsMillis\": ").append(toMillis(oneResource.getDnsNanos()))
+                    .append(", \"connectMillis\": ").append(toMillis(oneResource.getConnectNanos()))
+                    .append(", \"tlsMillis\": ").append(toMillis(oneResource.getTlsNanos()))
+                    .append(", \"ttfbMillis\": ").append(toMillis(oneResource.getTtfbNanos()))
+                    .append(", \"totalMillis\": ").append(toMillis(oneResource.getTotalNanos()))
+                    .append(", \"parseMillis\": ").append(toMillis(oneResource.getParseNanos()))
+                    .append(", \"rewriteMillis\": ").append(toMillis(oneResource.getRewriteNanos()))
+                    .append(", \"writeMillis\": ").append(toMillis(oneResource.getWriteNanos()))
+                    .append("}");
+        }
+        sb.append(allResources.isEmpty() ? "]\n" : "\n  ]\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Writes the JSON report to the given file, creating parent directories if needed.
+     * @param reportFile file to write to
+     * @throws IOException on write errors
+     */
+    public void writeReport(Path reportFile) throws IOException {
+        Path parent = reportFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.write(reportFile, this.toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Converts nanoseconds to milliseconds with three decimals.
+     * @param nanos nanoseconds
+     * @return milliseconds as string
+     */
+    protected static String toMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Converts the given string to a JSON string literal.
+     * @param str string, can be null
+     * @return JSON string literal or <code>null</code>
+     */
+    protected static String toJsonString(String str) {
+        if (str == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder("\"");
+        for (char oneChar : str.toCharArray()) {
+            if ((oneChar == '"') || (oneChar == '\\')) {
+                sb.append('\\').append(oneChar);
+            } else if (oneChar < ' ') {
+                sb.append(String.format(Locale.ROOT, "\\u%04x", (int) oneChar));
+            } else {
+                sb.append(oneChar);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+}
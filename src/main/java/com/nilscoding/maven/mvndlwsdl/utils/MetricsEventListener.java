@@ -0,0 +1,108 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * OkHttp event listener measuring DNS, connect, TLS and time to first byte of one call into the
+ * {@link ResourceMetrics} given as request tag. Calls without this tag are not measured.
+ * @author NilsCoding
+ */
+public final class MetricsEventListener extends EventListener {
+
+    /**
+     * Factory creating a listener for each call with metrics tag.
+     */
+    public static final EventListener.Factory FACTORY = call -> {
+        ResourceMetrics metrics = call.request().tag(ResourceMetrics.class);
+        return (metrics == null) ? EventListener.NONE : new MetricsEventListener(metrics);
+    };
+
+    /**
+     * Metrics to update.
+     */
+    private final ResourceMetrics metrics;
+    /**
+     * Start of call.
+     */
+    private long callStartNanos;
+    /**
+     * Start of DNS lookup.
+     */
+    private long dnsStartNanos;
+    /**
+     * Start of connect.
+     */
+    private long connectStartNanos;
+    /**
+     * Start of TLS handshake.
+     */
+    private long tlsStartNanos;
+
+    /**
+     * Creates a new instance.
+     * @param metrics metrics to update
+     */
+    public MetricsEventListener(ResourceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void callStart(Call call) {
+        this.callStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        this.dnsStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        this.metrics.setDnsNanos(this.metrics.getDnsNanos() + (System.nanoTime() - this.dnsStartNanos));
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        this.connectStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        this.tlsStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        this.metrics.setTlsNanos(this.metrics.getTlsNanos() + (System.nanoTime() - this.tlsStartNanos));
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        this.metrics.setConnectNanos(this.metrics.getConnectNanos()
+                + (System.nanoTime() - this.connectStartNanos));
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol,
+                              IOException ioe) {
+        this.metrics.setConnectNanos(this.metrics.getConnectNanos()
+                + (System.nanoTime() - this.connectStartNanos));
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+        if (this.metrics.getTtfbNanos() == 0) {
+            this.metrics.setTtfbNanos(System.nanoTime() - this.callStartNanos);
+        }
+    }
+
+}
@@ -0,0 +1,285 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import org.apache.maven.plugin.logging.Log;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Downloader for local sources, reading via NIO: <code>file:</code> URLs, <code>jar:</code> URLs (zip file
+ * system, e.g. <code>jar:file:/path/contracts.jar!/wsdl/service.wsdl</code>) and <code>classpath:</code>
+ * resources of the plugin class loader (including plugin dependencies). Other URLs are passed to the delegate
+ * downloader, if given.
+ * @author NilsCoding
+ */
+public class NioDownloader implements IDownloader {
+
+    /**
+     * Scheme of classpath resources.
+     */
+    public static final String CLASSPATH_SCHEME = "classpath";
+
+    /**
+     * Delegate for non-local URLs, can be null.
+     */
+    protected final IDownloader delegate;
+    /**
+     * Zip file systems opened by this instance, by archive URI, closed on close.
+     */
+    protected final Map<URI, FileSystem> openedFileSystems = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new instance without delegate, supporting local URLs only.
+     */
+    public NioDownloader() {
+        this(null);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param delegate delegate for non-local URLs, can be null
+     */
+    public NioDownloader(IDownloader delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Checks if the given URL is a local URL handled by this downloader.
+     * @param url URL to check
+     * @return true for <code>file:</code>, <code>jar:</code> and <code>classpath:</code> URLs
+     */
+    public static boolean isLocal(String url) {
+        if (url == null) {
+            return false;
+        }
+        String lowerUrl = url.trim().toLowerCase(Locale.ROOT);
+        return lowerUrl.startsWith("file:") || lowerUrl.startsWith("jar:")
+                || lowerUrl.startsWith(CLASSPATH_SCHEME + ":");
+    }
+
+    /**
+     * Opens the delegate downloader.
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @throws Exception on configuration errors of delegate
+     */
+    @Override
+    public void open(Log log, String optionsStr) throws Exception {
+        if (this.delegate != null) {
+            this.delegate.open(log, optionsStr);
+        }
+    }
+
+    /**
+     * Reads the text file from given URL.
+     * @param url        URL to read from
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @return text file content or null on error
+     */
+    @Override
+    public String downloadFile(String url, Log log, String optionsStr) {
+        if (isLocal(url)) {
+            return XmlUtils.toXmlString(this.readBytes(url, log));
+        }
+        if (this.delegate == null) {
+            log.error("could not fetch file from '" + url + "': not a local URL");
+            return null;
+        }
+        return this.delegate.downloadFile(url, log, optionsStr);
+    }
+
+    /**
+     * Reads the text file from given URL asynchronously.
+     * @param url        URL to read from
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @param executor   executor for blocking work
+     * @return future of text file content
+     */
+    @Override
+    public CompletableFuture<String> downloadFileAsync(String url, Log log, String optionsStr, Executor executor) {
+        if (isLocal(url) || (this.delegate == null)) {
+            return CompletableFuture.supplyAsync(() -> this.downloadFile(url, log, optionsStr), executor);
+        }
+        return this.delegate.downloadFileAsync(url, log, optionsStr, executor);
+    }
+
+    /**
+     * Reads the file from given URL as raw bytes.
+     * @param url        URL to read from
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @return file content or null on error
+     */
+    @Override
+    public byte[] downloadBytes(String url, Log log, String optionsStr) {
+        if (isLocal(url)) {
+            return this.readBytes(url, log);
+        }
+        if (this.delegate == null) {
+            log.error("could not fetch file from '" + url + "': not a local URL");
+            return null;
+        }
+        return this.delegate.downloadBytes(url, log, optionsStr);
+    }
+
+    /**
+     * Reads the file from given URL as raw bytes asynchronously.
+     * @param url        URL to read from
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @param executor   executor for blocking work
+     * @return future of file content
+     */
+    @Override
+    public CompletableFuture<byte[]> downloadBytesAsync(String url, Log log, String optionsStr,
+                                                        Executor executor) {
+        if (isLocal(url) || (this.delegate == null)) {
+            return CompletableFuture.supplyAsync(() -> this.downloadBytes(url, log, optionsStr), executor);
+        }
+        return this.delegate.downloadBytesAsync(url, log, optionsStr, executor);
+    }
+
+    /**
+     * Copies the file from given URL to a local file.
+     * @param url        URL to read from
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @param target     local file to write to
+     * @return true if file was copied, false on error
+     * @throws IOException on write errors of delegate
+     */
+    @Override
+    public boolean downloadToFile(String url, Log log, String optionsStr, Path target) throws IOException {
+        if (isLocal(url) == false) {
+            if (this.delegate == null) {
+                log.error("could not fetch file from '" + url + "': not a local URL");
+                return false;
+            }
+            return this.delegate.downloadToFile(url, log, optionsStr, target);
+        }
+        try {
+            Files.copy(this.resolvePath(url), target, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (Exception ex) {
+            log.error("could not read file from '" + url + "': " + ex, ex);
+            return false;
+        }
+    }
+
+    /**
+     * Passes the metrics collector to the delegate.
+     * @param metrics metrics collector
+     */
+    @Override
+    public void setMetrics(MetricsCollector metrics) {
+        if (this.delegate != null) {
+            this.delegate.setMetrics(metrics);
+        }
+    }
+
+    /**
+     * Closes the zip file systems opened by this instance and the delegate.
+     */
+    @Override
+    public void close() {
+        for (FileSystem oneFileSystem : this.openedFileSystems.values()) {
+            try {
+                oneFileSystem.close();
+            } catch (IOException ex) {
+                // nothing left to do
+            }
+        }
+        this.openedFileSystems.clear();
+        if (this.delegate != null) {
+            this.delegate.close();
+        }
+    }
+
+    /**
+     * Reads the file of the given local URL.
+     * @param url local URL
+     * @param log logging
+     * @return file content or null on error
+     */
+    protected byte[] readBytes(String url, Log log) {
+        try {
+            return Files.readAllBytes(this.resolvePath(url));
+        } catch (Exception ex) {
+            log.error("could not read file from '" + url + "': " + ex, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Resolves the given local URL to a path, opening the zip file system of <code>jar:</code> URLs if needed.
+     * @param url local URL
+     * @return path
+     * @throws IOException if the file does not exist or the archive could not be opened
+     * @throws URISyntaxException if the URL is invalid
+     */
+    protected Path resolvePath(String url) throws IOException, URISyntaxException {
+        String trimmedUrl = url.trim();
+        if (trimmedUrl.toLowerCase(Locale.ROOT).startsWith(CLASSPATH_SCHEME + ":")) {
+            String resourceName = trimmedUrl.substring(CLASSPATH_SCHEME.length() + 1);
+            while (resourceName.startsWith("/")) {
+                resourceName = resourceName.substring(1);
+            }
+            URL resource = NioDownloader.class.getClassLoader().getResource(resourceName);
+            if (resource == null) {
+                throw new NoSuchFileException(trimmedUrl);
+            }
+            trimmedUrl = resource.toString();
+        }
+        URI uri = new URI(trimmedUrl);
+        if ("jar".equalsIgnoreCase(uri.getScheme())) {
+            String specificPart = uri.getRawSchemeSpecificPart();
+            int separatorIndex = specificPart.indexOf("!/");
+            if (separatorIndex < 0) {
+                throw new NoSuchFileException(trimmedUrl);
+            }
+            URI archiveUri = new URI(specificPart.substring(0, separatorIndex));
+            String entryName = new URI(specificPart.substring(separatorIndex + 1)).getPath();
+            return this.getFileSystem(archiveUri).getPath(entryName);
+        }
+        return Paths.get(uri);
+    }
+
+    /**
+     * Returns the zip file system of the given archive, opening it if needed. The file system is private to
+     * this instance (not registered with the provider), so executions running in parallel do not close
+     * each other's file systems.
+     * @param archiveUri archive URI (<code>file:...</code>)
+     * @return zip file system
+     * @throws IOException if the archive could not be opened
+     */
+    protected FileSystem getFileSystem(URI archiveUri) throws IOException {
+        FileSystem fileSystem = this.openedFileSystems.get(archiveUri);
+        if (fileSystem != null) {
+            return fileSystem;
+        }
+        synchronized (this.openedFileSystems) {
+            fileSystem = this.openedFileSystems.get(archiveUri);
+            if (fileSystem == null) {
+                fileSystem = FileSystems.newFileSystem(Paths.get(archiveUri), (ClassLoader) null);
+                this.openedFileSystems.put(archiveUri, fileSystem);
+            }
+        }
+        return fileSystem;
+    }
+
+}
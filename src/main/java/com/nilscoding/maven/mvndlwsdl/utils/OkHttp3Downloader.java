@@ -1,19 +1,42 @@
 package com.nilscoding.maven.mvndlwsdl.utils;
 
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
 import okhttp3.Credentials;
+import okhttp3.Dispatcher;
+import okhttp3.Dns;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.Okio;
 import org.apache.maven.plugin.logging.Log;
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
+import java.io.File;
+import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
+import java.nio.file.Path;
 import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Provided downloader implementation using OkHttp 3.
@@ -29,6 +52,104 @@ public class OkHttp3Downloader implements IDownloader {
      * Maximum proxy port number.
      */
     protected static final int PROXY_MAX_PORT = 65535;
+    /**
+     * Default maximum number of idle connections per client.
+     */
+    protected static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+    /**
+     * Default keep-alive duration of idle connections in seconds.
+     */
+    protected static final int DEFAULT_KEEP_ALIVE_SECONDS = 300;
+    /**
+     * Default connect, read and write timeout in seconds.
+     */
+    protected static final int DEFAULT_TIMEOUT_SECONDS = 10;
+    /**
+     * Default maximum number of retries of transient errors.
+     */
+    protected static final int DEFAULT_RETRIES = 3;
+    /**
+     * Default delay before first retry in milliseconds.
+     */
+    protected static final int DEFAULT_RETRY_DELAY_MILLIS = 500;
+    /**
+     * Default maximum delay between retries in milliseconds.
+     */
+    protected static final int DEFAULT_RETRY_MAX_DELAY_MILLIS = 10000;
+    /**
+     * Default maximum number of concurrent requests per host.
+     */
+    protected static final int DEFAULT_MAX_REQUESTS_PER_HOST = 5;
+    /**
+     * Minimum maximum number of concurrent requests of dispatcher (OkHttp default).
+     */
+    protected static final int MIN_MAX_REQUESTS = 64;
+    /**
+     * Default time to live of cached DNS lookups in seconds.
+     */
+    protected static final int DEFAULT_DNS_CACHE_SECONDS = 300;
+    /**
+     * Default maximum size of the download cache in megabytes.
+     */
+    protected static final int DEFAULT_CACHE_SIZE_MB = 50;
+    /**
+     * Bytes per megabyte.
+     */
+    protected static final long BYTES_PER_MB = 1024L * 1024L;
+
+    /**
+     * Shared clients by options, so connections, TLS sessions and DNS lookups are reused
+     * between downloads and instances.
+     */
+    protected static final Map<String, OkHttpClient> SHARED_CLIENTS = new ConcurrentHashMap<>();
+
+    /**
+     * Shared download caches by directory, as only one cache instance may use a directory.
+     */
+    protected static final Map<File, Cache> SHARED_CACHES = new ConcurrentHashMap<>();
+
+    /**
+     * Shared SSL socket factory, so TLS sessions can be resumed.
+     */
+    private static volatile SSLSocketFactory sharedSslSocketFactory;
+
+    /**
+     * Options string this instance was opened with.
+     */
+    protected String openedOptionsStr;
+    /**
+     * Client configured on open, null if not opened.
+     */
+    protected OkHttpClient openedClient;
+    /**
+     * Request headers configured on open.
+     */
+    protected Map<String, String> openedHeaders;
+
+    /**
+     * Retry policy configured on open.
+     */
+    protected RetryPolicy openedRetryPolicy;
+    /**
+     * Logging of opened instance.
+     */
+    protected Log openedLog;
+    /**
+     * Metrics collector, null if no metrics are collected.
+     */
+    protected MetricsCollector metrics;
+    /**
+     * Number of downloads served from cache without request.
+     */
+    protected final AtomicInteger cacheHits = new AtomicInteger();
+    /**
+     * Number of downloads served from cache after revalidation.
+     */
+    protected final AtomicInteger cacheRevalidated = new AtomicInteger();
+    /**
+     * Number of downloads not served from cache.
+     */
+    protected final AtomicInteger cacheMisses = new AtomicInteger();
 
     /**
      * Creates a new instance.
@@ -36,6 +157,24 @@ public class OkHttp3Downloader implements IDownloader {
     public OkHttp3Downloader() {
     }
 
+    /**
+     * Opens the downloader, parsing the options and looking up the shared client to use for all downloads.
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     */
+    @Override
+    public void open(Log log, String optionsStr) {
+        Map<String, String> options = StringUtils.parseOptions(optionsStr);
+        this.openedClient = getSharedClient(options);
+        this.openedHeaders = createHeaders(options);
+        this.openedRetryPolicy = createRetryPolicy(options);
+        this.openedOptionsStr = optionsStr;
+        this.openedLog = log;
+        if (this.openedClient.cache() != null) {
+            log.info("download cache: " + this.openedClient.cache().directory());
+        }
+    }
+
     /**
      * Downloads the text file from given URL.
      * @param url        URL to download from
@@ -45,59 +184,396 @@ public class OkHttp3Downloader implements IDownloader {
      */
     @Override
     public String downloadFile(String url, Log log, String optionsStr) {
-        try {
-            Map<String, String> options = StringUtils.parseOptions(optionsStr);
+        return this.await(this.enqueue(url, optionsStr, ResponseBody::string), url, log);
+    }
+
+    /**
+     * Downloads the file from given URL as raw bytes.
+     * @param url        URL to download from
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @return downloaded file content or null on error
+     */
+    @Override
+    public byte[] downloadBytes(String url, Log log, String optionsStr) {
+        return this.await(this.enqueue(url, optionsStr, ResponseBody::bytes), url, log);
+    }
 
-            OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder()
-                    .sslSocketFactory(createSSLSocketFactory(AcceptAllCertificatesTrustManager.INSTANCE),
-                            AcceptAllCertificatesTrustManager.INSTANCE)
-                    .hostnameVerifier((host, sess) -> true);
-
-            // optional: proxy
-            String proxyName = options.get("proxyHost");
-            int proxyPort = StringUtils.parseToInt(options.get("proxyPort"), -1);
-            if ((StringUtils.isEmpty(proxyName) == false)
-                    && (proxyPort >= PROXY_MIN_PORT)
-                    && (proxyPort <= PROXY_MAX_PORT)) {
-                clientBuilder.proxy(new Proxy(Proxy.Type.HTTP, new InetSocketAddress(proxyName, proxyPort)));
+    /**
+     * Downloads the file from given URL to a local file, streaming the response body.
+     * @param url        URL to download from
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @param target     local file to write to
+     * @return true if file was downloaded, false on error
+     */
+    @Override
+    public boolean downloadToFile(String url, Log log, String optionsStr, Path target) {
+        Boolean downloaded = this.await(this.enqueue(url, optionsStr, body -> {
+            try (BufferedSink sink = Okio.buffer(Okio.sink(target))) {
+                sink.writeAll(body.source());
             }
-            // optional: authentication
-            Map<String, String> optionalHeaders = new LinkedHashMap<>();
-            String authType = options.get("authType");
-            if ("header".equalsIgnoreCase(authType)) {
-                String headerValue = options.get("authValue");
-                if (StringUtils.isEmpty(headerValue) == false) {
-                    optionalHeaders.put("Authorization", headerValue.trim());
+            return Boolean.TRUE;
+        }), url, log);
+        return Boolean.TRUE.equals(downloaded);
+    }
+
+    /**
+     * Waits for the given download. Blocking downloads are run by the dispatcher of the client as well,
+     * so the per-host limit applies to them, too.
+     * @param download download future
+     * @param url      URL, for logging
+     * @param log      logging
+     * @param <T>      type of result
+     * @return result or null on error
+     */
+    protected <T> T await(CompletableFuture<T> download, String url, Log log) {
+        try {
+            return download.get();
+        } catch (ExecutionException ex) {
+            log.error("could not fetch file from '" + url + "': " + ex.getCause(), ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            log.error("interrupted while fetching file from '" + url + "'");
+        }
+        return null;
+    }
+
+    /**
+     * Downloads the text file from given URL asynchronously, using the dispatcher of the client,
+     * so no thread is blocked while waiting for the response.
+     * @param url        URL to download from
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @param executor   executor for blocking work (not used)
+     * @return future of downloaded text file content, completed exceptionally on error
+     */
+    @Override
+    public CompletableFuture<String> downloadFileAsync(String url, Log log, String optionsStr, Executor executor) {
+        return this.enqueue(url, optionsStr, ResponseBody::string);
+    }
+
+    /**
+     * Downloads the file from given URL as raw bytes asynchronously, using the dispatcher of the client,
+     * so no thread is blocked while waiting for the response.
+     * @param url        URL to download from
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @param executor   executor for blocking work (not used)
+     * @return future of downloaded file content, completed exceptionally on error
+     */
+    @Override
+    public CompletableFuture<byte[]> downloadBytesAsync(String url, Log log, String optionsStr,
+                                                        Executor executor) {
+        return this.enqueue(url, optionsStr, ResponseBody::bytes);
+    }
+
+    /**
+     * Enqueues the call for given URL.
+     * @param url        URL to download from
+     * @param optionsStr options string
+     * @param bodyReader reads the response body
+     * @param <T>        type of result
+     * @return future of read response body, completed exceptionally on error
+     */
+    protected <T> CompletableFuture<T> enqueue(String url, String optionsStr, BodyReader<T> bodyReader) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        RetryPolicy retryPolicy = this.openedRetryPolicy;
+        if ((retryPolicy == null) || (Objects.equals(optionsStr, this.openedOptionsStr) == false)) {
+            retryPolicy = createRetryPolicy(StringUtils.parseOptions(optionsStr));
+        }
+        this.enqueue(url, optionsStr, bodyReader, retryPolicy, 0, future);
+        return future;
+    }
+
+    /**
+     * Enqueues one attempt of the call for given URL. Transient errors are retried by scheduling the next
+     * attempt, so the dispatcher thread and its per-host slot are not blocked during the backoff.
+     * @param url         URL to download from
+     * @param optionsStr  options string
+     * @param bodyReader  reads the response body
+     * @param retryPolicy retry policy
+     * @param attempt     number of failed attempts before, beginning at 0
+     * @param future      future to complete with the read response body or the last error
+     * @param <T>         type of result
+     */
+    protected <T> void enqueue(String url, String optionsStr, BodyReader<T> bodyReader, RetryPolicy retryPolicy,
+                               int attempt, CompletableFuture<T> future) {
+        Runnable nextAttempt = () -> this.enqueue(url, optionsStr, bodyReader, retryPolicy, attempt + 1, future);
+        try {
+            this.newCall(url, optionsStr).enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException ex) {
+                    long retryDelay = retryPolicy.retryDelay(attempt, ex);
+                    if ((retryDelay >= 0) && (call.isCanceled() == false)) {
+                        retryPolicy.schedule(nextAttempt, retryDelay);
+                    } else {
+                        future.completeExceptionally(ex);
+                    }
                 }
-            } else if ("basic".equalsIgnoreCase(authType)) {
-                String authValue = options.get("authValue");
-                if (StringUtils.isEmpty(authValue) == false) {
-                    optionalHeaders.put("Authorization", "Basic " + authValue.trim());
-                } else {
-                    String authUser = options.get("authUser");
-                    String authPass = options.get("authPass");
-                    if ((StringUtils.isEmpty(authUser) == false) && (StringUtils.isEmpty(authPass) == false)) {
-                        authValue = Credentials.basic(authUser, authPass);
-                        optionalHeaders.put("Authorization", authValue);
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    try (Response closeableResponse = response) {
+                        OkHttp3Downloader.this.countCacheUsage(closeableResponse);
+                        if (closeableResponse.isSuccessful() == false) {
+                            long retryDelay = retryPolicy.retryDelay(attempt, closeableResponse);
+                            if (retryDelay >= 0) {
+                                retryPolicy.schedule(nextAttempt, retryDelay);
+                                return;
+                            }
+                            throw new IOException("HTTP " + closeableResponse.code() + " "
+                                    + closeableResponse.message());
+                        }
+                        future.complete(bodyReader.read(closeableResponse.body()));
+                    } catch (Exception ex) {
+                        future.completeExceptionally(ex);
                     }
                 }
-            }
+            });
+        } catch (Exception ex) {
+            future.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Counts the cache usage of the given response.
+     * @param response response
+     */
+    protected void countCacheUsage(Response response) {
+        String cacheStatus;
+        if (response.cacheResponse() == null) {
+            this.cacheMisses.incrementAndGet();
+            cacheStatus = "miss";
+        } else if (response.networkResponse() == null) {
+            this.cacheHits.incrementAndGet();
+            cacheStatus = "hit";
+        } else {
+            this.cacheRevalidated.incrementAndGet();
+            cacheStatus = "revalidated";
+        }
+        ResourceMetrics resourceMetrics = response.request().tag(ResourceMetrics.class);
+        if (resourceMetrics != null) {
+            resourceMetrics.setCacheStatus(cacheStatus);
+        }
+    }
+
+    /**
+     * Creates the call for given URL, using the opened client and headers if options match.
+     * @param url        URL to download from
+     * @param optionsStr options string
+     * @return call
+     */
+    protected Call newCall(String url, String optionsStr) {
+        OkHttpClient client = this.openedClient;
+        Map<String, String> optionalHeaders = this.openedHeaders;
+        if ((client == null) || (Objects.equals(optionsStr, this.openedOptionsStr) == false)) {
+            // not opened or opened with different options: configure for this download only
+            Map<String, String> options = StringUtils.parseOptions(optionsStr);
+            client = getSharedClient(options);
+            optionalHeaders = createHeaders(options);
+        }
+
+        Request.Builder requestBuilder = new Request.Builder();
+        if (client.cache() != null) {
+            // always revalidate cached responses (If-None-Match / If-Modified-Since)
+            requestBuilder.cacheControl(new CacheControl.Builder().maxAge(0, TimeUnit.SECONDS).build());
+        }
+        if (optionalHeaders.isEmpty() == false) {
+            optionalHeaders.forEach(requestBuilder::header);
+        }
+        MetricsCollector metricsCollector = this.metrics;
+        if (metricsCollector != null) {
+            // measured by MetricsEventListener
+            requestBuilder.tag(ResourceMetrics.class, metricsCollector.get(url));
+        }
+        Request request = requestBuilder.url(url).build();
+        return client.newCall(request);
+    }
+
+    /**
+     * Sets the metrics collector, so DNS, connect, TLS, time to first byte and cache status are measured.
+     * @param metrics metrics collector
+     */
+    @Override
+    public void setMetrics(MetricsCollector metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Closes the downloader, logging the cache usage. The shared client stays available for other instances,
+     * its idle connections are closed after the keep-alive duration.
+     */
+    @Override
+    public void close() {
+        if ((this.openedLog != null) && (this.openedClient != null) && (this.openedClient.cache() != null)) {
+            this.openedLog.info("download cache: " + this.cacheHits.get() + " hit(s), "
+                    + this.cacheRevalidated.get() + " revalidated, " + this.cacheMisses.get() + " miss(es)");
+        }
+        this.openedLog = null;
+        this.openedClient = null;
+        this.openedHeaders = null;
+        this.openedRetryPolicy = null;
+        this.openedOptionsStr = null;
+        this.metrics = null;
+    }
+
+    /**
+     * Returns the shared client for given options, creating it if needed.
+     * @param options parsed options
+     * @return shared client
+     */
+    protected OkHttpClient getSharedClient(Map<String, String> options) {
+        return SHARED_CLIENTS.computeIfAbsent(String.valueOf(options), key -> createClient(options));
+    }
+
+    /**
+     * Creates the client for given options.
+     * @param options parsed options
+     * @return client
+     */
+    protected OkHttpClient createClient(Map<String, String> options) {
+        int maxIdleConnections = StringUtils.parseToInt(options.get("maxIdleConnections"),
+                DEFAULT_MAX_IDLE_CONNECTIONS);
+        int keepAliveSeconds = StringUtils.parseToInt(options.get("keepAlive"), DEFAULT_KEEP_ALIVE_SECONDS);
+        int connectTimeout = StringUtils.parseToInt(options.get("connectTimeout"), DEFAULT_TIMEOUT_SECONDS);
+        int readTimeout = StringUtils.parseToInt(options.get("readTimeout"), DEFAULT_TIMEOUT_SECONDS);
+        int writeTimeout = StringUtils.parseToInt(options.get("writeTimeout"), DEFAULT_TIMEOUT_SECONDS);
+        int callTimeout = StringUtils.parseToInt(options.get("callTimeout"), 0);
+        int dnsCacheSeconds = StringUtils.parseToInt(options.get("dnsCache"), DEFAULT_DNS_CACHE_SECONDS);
+        int maxRequestsPerHost = StringUtils.parseToInt(options.get("maxRequestsPerHost"),
+                DEFAULT_MAX_REQUESTS_PER_HOST);
+
+        // all downloads run on the dispatcher, which limits the concurrent requests per host
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(Math.max(maxRequestsPerHost, 1));
+        dispatcher.setMaxRequests(Math.max(dispatcher.getMaxRequestsPerHost(), MIN_MAX_REQUESTS));
+
+        OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder()
+                .sslSocketFactory(getSharedSSLSocketFactory(), AcceptAllCertificatesTrustManager.INSTANCE)
+                .hostnameVerifier((host, sess) -> true)
+                .connectionPool(new ConnectionPool(Math.max(maxIdleConnections, 0),
+                        Math.max(keepAliveSeconds, 1), TimeUnit.SECONDS))
+                .connectTimeout(Math.max(connectTimeout, 0), TimeUnit.SECONDS)
+                .readTimeout(Math.max(readTimeout, 0), TimeUnit.SECONDS)
+                .writeTimeout(Math.max(writeTimeout, 0), TimeUnit.SECONDS)
+                .callTimeout(Math.max(callTimeout, 0), TimeUnit.SECONDS)
+                .dispatcher(dispatcher)
+                .dns(new CachingDns(Dns.SYSTEM, TimeUnit.SECONDS.toMillis(Math.max(dnsCacheSeconds, 0))))
+                .eventListenerFactory(MetricsEventListener.FACTORY);
+
+        // optional: persistent download cache
+        Cache cache = getSharedCache(options);
+        if (cache != null) {
+            clientBuilder.cache(cache);
+        }
 
-            OkHttpClient client = clientBuilder.build();
-            Request.Builder requestBuilder = new Request.Builder();
-            if (optionalHeaders.isEmpty() == false) {
-                optionalHeaders.forEach(requestBuilder::header);
+        // HTTP/2 is negotiated via ALPN if supported by server and JVM
+        if ("false".equalsIgnoreCase(options.get("http2"))) {
+            clientBuilder.protocols(Collections.singletonList(Protocol.HTTP_1_1));
+        } else {
+            clientBuilder.protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
+        }
+
+        // optional: proxy
+        String proxyName = options.get("proxyHost");
+        int proxyPort = StringUtils.parseToInt(options.get("proxyPort"), -1);
+        if ((StringUtils.isEmpty(proxyName) == false)
+                && (proxyPort >= PROXY_MIN_PORT)
+                && (proxyPort <= PROXY_MAX_PORT)) {
+            clientBuilder.proxy(new Proxy(Proxy.Type.HTTP, new InetSocketAddress(proxyName, proxyPort)));
+        }
+        return clientBuilder.build();
+    }
+
+    /**
+     * Returns the shared download cache for given options, creating it if needed.
+     * The cache is opt-in (option <code>cache=true</code> or <code>cacheDir</code>), as its directory
+     * must not be used by several processes at the same time.
+     * @param options parsed options
+     * @return cache or null if disabled
+     */
+    protected Cache getSharedCache(Map<String, String> options) {
+        String cacheDirStr = options.get("cacheDir");
+        String cacheStr = options.get("cache");
+        if (StringUtils.isEmpty(cacheStr)) {
+            cacheStr = String.valueOf(StringUtils.isEmpty(cacheDirStr) == false);
+        }
+        if ("true".equalsIgnoreCase(cacheStr.trim()) == false) {
+            return null;
+        }
+        int cacheSizeMb = StringUtils.parseToInt(options.get("cacheSize"), DEFAULT_CACHE_SIZE_MB);
+        if (cacheSizeMb <= 0) {
+            return null;
+        }
+        File cacheDir;
+        if (StringUtils.isEmpty(cacheDirStr)) {
+            cacheDir = new File(System.getProperty("user.home"), ".m2" + File.separator + "mvn-download-wsdl-cache");
+        } else {
+            cacheDir = new File(cacheDirStr.trim());
+        }
+        return SHARED_CACHES.computeIfAbsent(cacheDir.getAbsoluteFile(),
+                dir -> new Cache(dir, cacheSizeMb * BYTES_PER_MB));
+    }
+
+    /**
+     * Creates the retry policy for given options.
+     * @param options parsed options
+     * @return retry policy
+     */
+    protected RetryPolicy createRetryPolicy(Map<String, String> options) {
+        int retries = StringUtils.parseToInt(options.get("retries"), DEFAULT_RETRIES);
+        int retryDelay = StringUtils.parseToInt(options.get("retryDelay"), DEFAULT_RETRY_DELAY_MILLIS);
+        int retryMaxDelay = StringUtils.parseToInt(options.get("retryMaxDelay"), DEFAULT_RETRY_MAX_DELAY_MILLIS);
+        return new RetryPolicy(retries, retryDelay, retryMaxDelay);
+    }
+
+    /**
+     * Creates the request headers for given options.
+     * @param options parsed options
+     * @return headers, can be empty
+     */
+    protected Map<String, String> createHeaders(Map<String, String> options) {
+        // optional: authentication
+        Map<String, String> optionalHeaders = new LinkedHashMap<>();
+        String authType = options.get("authType");
+        if ("header".equalsIgnoreCase(authType)) {
+            String headerValue = options.get("authValue");
+            if (StringUtils.isEmpty(headerValue) == false) {
+                optionalHeaders.put("Authorization", headerValue.trim());
             }
-            Request request = requestBuilder.url(url).build();
-            String contentStr;
-            try (Response response = client.newCall(request).execute()) {
-                contentStr = response.body().string();
+        } else if ("basic".equalsIgnoreCase(authType)) {
+            String authValue = options.get("authValue");
+            if (StringUtils.isEmpty(authValue) == false) {
+                optionalHeaders.put("Authorization", "Basic " + authValue.trim());
+            } else {
+                String authUser = options.get("authUser");
+                String authPass = options.get("authPass");
+                if ((StringUtils.isEmpty(authUser) == false) && (StringUtils.isEmpty(authPass) == false)) {
+                    authValue = Credentials.basic(authUser, authPass);
+                    optionalHeaders.put("Authorization", authValue);
+                }
             }
-            return contentStr;
-        } catch (Exception ex) {
-            log.error("could not fetch file from '" + url + "': " + ex, ex);
-            return null;
         }
+        return optionalHeaders;
+    }
+
+    /**
+     * Returns the shared SSLSocketFactory accepting all certificates, creating it if needed.
+     * @return shared SSL socket factory
+     */
+    protected static SSLSocketFactory getSharedSSLSocketFactory() {
+        SSLSocketFactory factory = sharedSslSocketFactory;
+        if (factory == null) {
+            synchronized (OkHttp3Downloader.class) {
+                factory = sharedSslSocketFactory;
+                if (factory == null) {
+                    factory = createSSLSocketFactory(AcceptAllCertificatesTrustManager.INSTANCE);
+                    sharedSslSocketFactory = factory;
+                }
+            }
+        }
+        return factory;
     }
 
     /**
@@ -119,4 +595,19 @@ public class OkHttp3Downloader implements IDownloader {
             return null;
         }
     }
+
+    /**
+     * Reads a response body.
+     * @param <T> type of result
+     */
+    @FunctionalInterface
+    protected interface BodyReader<T> {
+        /**
+         * Reads the response body.
+         * @param body response body
+         * @return read result
+         * @throws IOException on read errors
+         */
+        T read(ResponseBody body) throws IOException;
+    }
 }
@@ -0,0 +1,253 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import java.io.Serializable;
+
+/**
+ * Performance metrics of one downloaded resource. All times are in nanoseconds, 0 if not measured.
+ * @author NilsCoding
+ */
+public class ResourceMetrics implements Serializable {
+    private static final long serialVersionUID = 2216349761406083472L;
+
+    /**
+     * URL of resource.
+     */
+    protected final String url;
+    /**
+     * Creation time, to keep the order of resources.
+     */
+    protected final long createdNanos = System.nanoTime();
+    /**
+     * DNS lookup time.
+     */
+    protected long dnsNanos;
+    /**
+     * Connect time, including TLS handshake.
+     */
+    protected long connectNanos;
+    /**
+     * TLS handshake time.
+     */
+    protected long tlsNanos;
+    /**
+     * Time to first byte: from start of call until response headers are received.
+     */
+    protected long ttfbNanos;
+    /**
+     * Total download time.
+     */
+    protected long totalNanos;
+    /**
+     * Number of bytes downloaded (content, not transferred bytes).
+     */
+    protected long bytes;
+    /**
+     * Cache status: <code>hit</code>, <code>revalidated</code>, <code>miss</code> or null if unknown.
+     */
+    protected String cacheStatus;
+    /**
+     * Parse or scan time.
+     */
+    protected long parseNanos;
+    /**
+     * Time to rewrite schema locations.
+     */
+    protected long rewriteNanos;
+    /**
+     * Time to write the output file.
+     */
+    protected long writeNanos;
+
+    /**
+     * Creates a new instance.
+     * @param url URL of resource
+     */
+    public ResourceMetrics(String url) {
+        this.url = url;
+    }
+
+    /**
+     * Returns the summed time of download, parse, rewrite and write.
+     * @return summed time in nanoseconds
+     */
+    public long getSummedNanos() {
+        return this.totalNanos + this.parseNanos + this.rewriteNanos + this.writeNanos;
+    }
+
+    /**
+     * Returns the URL of resource.
+     * @return URL of resource
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Returns the creation time.
+     * @return creation time in nanoseconds, only comparable with other nano times
+     */
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+
+    /**
+     * Returns the DNS lookup time.
+     * @return DNS lookup time in nanoseconds
+     */
+    public long getDnsNanos() {
+        return dnsNanos;
+    }
+
+    /**
+     * Sets the DNS lookup time.
+     * @param dnsNanos DNS lookup time in nanoseconds
+     */
+    public void setDnsNanos(long dnsNanos) {
+        this.dnsNanos = dnsNanos;
+    }
+
+    /**
+     * Returns the connect time, including TLS handshake.
+     * @return connect time in nanoseconds
+     */
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    /**
+     * Sets the connect time, including TLS handshake.
+     * @param connectNanos connect time in nanoseconds
+     */
+    public void setConnectNanos(long connectNanos) {
+        this.connectNanos = connectNanos;
+    }
+
+    /**
+     * Returns the TLS handshake time.
+     * @return TLS handshake time in nanoseconds
+     */
+    public long getTlsNanos() {
+        return tlsNanos;
+    }
+
+    /**
+     * Sets the TLS handshake time.
+     * @param tlsNanos TLS handshake time in nanoseconds
+     */
+    public void setTlsNanos(long tlsNanos) {
+        this.tlsNanos = tlsNanos;
+    }
+
+    /**
+     * Returns the time to first byte.
+     * @return time to first byte in nanoseconds
+     */
+    public long getTtfbNanos() {
+        return ttfbNanos;
+    }
+
+    /**
+     * Sets the time to first byte.
+     * @param ttfbNanos time to first byte in nanoseconds
+     */
+    public void setTtfbNanos(long ttfbNanos) {
+        this.ttfbNanos = ttfbNanos;
+    }
+
+    /**
+     * Returns the total download time.
+     * @return total download time in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Sets the total download time.
+     * @param totalNanos total download time in nanoseconds
+     */
+    public void setTotalNanos(long totalNanos) {
+        this.totalNanos = totalNanos;
+    }
+
+    /**
+     * Returns the number of bytes downloaded.
+     * @return number of bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Sets the number of bytes downloaded.
+     * @param bytes number of bytes
+     */
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Returns the cache status.
+     * @return <code>hit</code>, <code>revalidated</code>, <code>miss</code> or null if unknown
+     */
+    public String getCacheStatus() {
+        return cacheStatus;
+    }
+
+    /**
+     * Sets the cache status.
+     * @param cacheStatus <code>hit</code>, <code>revalidated</code>, <code>miss</code> or null if unknown
+     */
+    public void setCacheStatus(String cacheStatus) {
+        this.cacheStatus = cacheStatus;
+    }
+
+    /**
+     * Returns the parse or scan time.
+     * @return parse time in nanoseconds
+     */
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    /**
+     * Sets the parse or scan time.
+     * @param parseNanos parse time in nanoseconds
+     */
+    public void setParseNanos(long parseNanos) {
+        this.parseNanos = parseNanos;
+    }
+
+    /**
+     * Returns the time to rewrite schema locations.
+     * @return rewrite time in nanoseconds
+     */
+    public long getRewriteNanos() {
+        return rewriteNanos;
+    }
+
+    /**
+     * Sets the time to rewrite schema locations.
+     * @param rewriteNanos rewrite time in nanoseconds
+     */
+    public void setRewriteNanos(long rewriteNanos) {
+        this.rewriteNanos = rewriteNanos;
+    }
+
+    /**
+     * Returns the time to write the output file.
+     * @return write time in nanoseconds
+     */
+    public long getWriteNanos() {
+        return writeNanos;
+    }
+
+    /**
+     * Sets the time to write the output file.
+     * @param writeNanos write time in nanoseconds
+     */
+    public void setWriteNanos(long writeNanos) {
+        this.writeNanos = writeNanos;
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import okhttp3.Response;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retry policy for transient errors with exponential backoff and jitter: timeouts, connection resets,
+ * <code>502</code>, <code>503</code>, <code>504</code> and <code>429 Too Many Requests</code>, honoring the
+ * <code>Retry-After</code> header. Permanent errors (e.g. unknown hosts, TLS handshake or protocol errors,
+ * other status codes) are not retried. Retries are scheduled, so no thread is blocked during the backoff.
+ * @author NilsCoding
+ */
+public class RetryPolicy {
+
+    /**
+     * Status code: too many requests.
+     */
+    protected static final int HTTP_TOO_MANY_REQUESTS = 429;
+    /**
+     * Status code: bad gateway.
+     */
+    protected static final int HTTP_BAD_GATEWAY = 502;
+    /**
+     * Status code: service unavailable.
+     */
+    protected static final int HTTP_SERVICE_UNAVAILABLE = 503;
+    /**
+     * Status code: gateway timeout.
+     */
+    protected static final int HTTP_GATEWAY_TIMEOUT = 504;
+    /**
+     * Class name of the OkHttp exception of an HTTP/2 stream reset by the server, matched by name,
+     * as the class is internal to OkHttp.
+     */
+    protected static final String STREAM_RESET_EXCEPTION = "okhttp3.internal.http2.StreamResetException";
+    /**
+     * Maximum exponent of backoff, to avoid overflows.
+     */
+    protected static final int MAX_BACKOFF_EXPONENT = 20;
+
+    /**
+     * Shared scheduler of retries, only enqueueing the next attempt.
+     */
+    protected static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "mvndlwsdl-retry");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * Maximum number of retries.
+     */
+    protected final int maxRetries;
+    /**
+     * Delay before first retry in milliseconds, doubled for every further retry.
+     */
+    protected final long baseDelayMillis;
+    /**
+     * Maximum delay between retries in milliseconds, also limits <code>Retry-After</code>.
+     */
+    protected final long maxDelayMillis;
+
+    /**
+     * Creates a new instance.
+     * @param maxRetries      maximum number of retries, 0 for none
+     * @param baseDelayMillis delay before first retry in milliseconds, doubled for every further retry
+     * @param maxDelayMillis  maximum delay between retries in milliseconds
+     */
+    public RetryPolicy(int maxRetries, long baseDelayMillis, long maxDelayMillis) {
+        this.maxRetries = Math.max(maxRetries, 0);
+        this.baseDelayMillis = Math.max(baseDelayMillis, 0);
+        this.maxDelayMillis = Math.max(maxDelayMillis, this.baseDelayMillis);
+    }
+
+    /**
+     * Returns the delay before retrying a failed attempt.
+     * @param attempt number of failed attempts before, beginning at 0
+     * @param ex      error of the attempt
+     * @return delay in milliseconds or -1 if the error is permanent or retries are exhausted
+     */
+    public long retryDelay(int attempt, IOException ex) {
+        if ((attempt >= this.maxRetries) || (isTransient(ex) == false)) {
+            return -1;
+        }
+        return this.backoffDelay(attempt);
+    }
+
+    /**
+     * Returns the delay before retrying an attempt with error response.
+     * @param attempt  number of failed attempts before, beginning at 0
+     * @param response error response of the attempt
+     * @return delay in milliseconds or -1 if the error is permanent or retries are exhausted
+     */
+    public long retryDelay(int attempt, Response response) {
+        if ((attempt >= this.maxRetries) || (isTransient(response.code()) == false)) {
+            return -1;
+        }
+        long retryAfter = parseRetryAfter(response.header("Retry-After"));
+        if (retryAfter >= 0) {
+            return Math.min(retryAfter, this.maxDelayMillis);
+        }
+        return this.backoffDelay(attempt);
+    }
+
+    /**
+     * Schedules the next attempt.
+     * @param attempt     runs the next attempt, must not block
+     * @param delayMillis delay in milliseconds
+     */
+    public void schedule(Runnable attempt, long delayMillis) {
+        SCHEDULER.schedule(attempt, Math.max(delayMillis, 0), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Checks if the given status code is a transient error worth retrying.
+     * @param code status code
+     * @return true for 429, 502, 503 and 504
+     */
+    protected static boolean isTransient(int code) {
+        return (code == HTTP_TOO_MANY_REQUESTS) || (code == HTTP_BAD_GATEWAY)
+                || (code == HTTP_SERVICE_UNAVAILABLE) || (code == HTTP_GATEWAY_TIMEOUT);
+    }
+
+    /**
+     * Checks if the given I/O error is transient: timeouts, connection resets and streams closed early.
+     * Unknown hosts, refused connections, TLS and protocol errors are permanent.
+     * @param ex I/O error
+     * @return true if transient
+     */
+    protected static boolean isTransient(IOException ex) {
+        if ((ex instanceof SocketTimeoutException) || (ex instanceof EOFException)
+                || STREAM_RESET_EXCEPTION.equals(ex.getClass().getName())) {
+            return true;
+        }
+        return (ex instanceof SocketException) && ((ex instanceof ConnectException) == false)
+                && ((ex instanceof NoRouteToHostException) == false);
+    }
+
+    /**
+     * Calculates the delay before the given retry: exponential backoff with jitter, between half and the full
+     * backoff, so parallel downloads do not retry at the same time.
+     * @param attempt number of failed attempts before, beginning at 0
+     * @return delay in milliseconds
+     */
+    protected long backoffDelay(int attempt) {
+        long backoff = Math.min(this.baseDelayMillis << Math.min(attempt, MAX_BACKOFF_EXPONENT), this.maxDelayMillis);
+        if (backoff <= 1) {
+            return backoff;
+        }
+        long half = backoff / 2;
+        return half + ThreadLocalRandom.current().nextLong(backoff - half + 1);
+    }
+
+    /**
+     * Parses the <code>Retry-After</code> header, given in seconds or as HTTP date.
+     * @param retryAfter header value, can be null
+     * @return delay in milliseconds or -1 if not given or not parsable
+     */
+    protected static long parseRetryAfter(String retryAfter) {
+        if (StringUtils.isEmpty(retryAfter)) {
+            return -1;
+        }
+        String trimmedValue = retryAfter.trim();
+        try {
+            return Math.max(Duration.ofSeconds(Long.parseLong(trimmedValue)).toMillis(), 0);
+        } catch (NumberFormatException | ArithmeticException ex) {
+            // not in seconds, try HTTP date
+        }
+        try {
+            ZonedDateTime retryTime = ZonedDateTime.parse(trimmedValue, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(Duration.between(ZonedDateTime.now(retryTime.getZone()), retryTime).toMillis(), 0);
+        } catch (DateTimeParseException ex) {
+            return -1;
+        }
+    }
+
+}
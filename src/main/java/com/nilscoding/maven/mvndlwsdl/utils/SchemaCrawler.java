@@ -0,0 +1,521 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import org.apache.maven.plugin.logging.Log;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Breadth-first crawler for the schema graph. All schemas of one graph level are downloaded
+ * asynchronously and parsed concurrently, the results are collected in reference order, so the resolved
+ * schemas are always in the same order, regardless of download timing.
+ * One crawler can be used to crawl several root documents concurrently, every location is fetched only once.
+ * Optionally, byte-identical content downloaded from different locations is deduplicated to one schema file.
+ * @author NilsCoding
+ */
+public class SchemaCrawler implements AutoCloseable {
+
+    /**
+     * Opened downloader.
+     */
+    protected final IDownloader downloader;
+    /**
+     * Downloader options.
+     */
+    protected final String downloaderOptions;
+    /**
+     * Logging.
+     */
+    protected final Log log;
+    /**
+     * Maximum number of parallel downloads.
+     */
+    protected final int maxParallelDownloads;
+    /**
+     * Permits for running downloads.
+     */
+    protected final Semaphore downloadPermits;
+    /**
+     * Temporary files of streamed schemas, deleted on close.
+     */
+    protected final Queue<Path> temporaryFiles = new ConcurrentLinkedQueue<>();
+    /**
+     * Started fetches by location, shared by all crawls.
+     */
+    protected final Map<String, CompletableFuture<SchemaFile>> fetches = new ConcurrentHashMap<>();
+    /**
+     * Content index: first schema by SHA-256 hash of its content, only used if deduplicating.
+     */
+    protected final Map<String, SchemaFile> contentIndex = new ConcurrentHashMap<>();
+    /**
+     * Locations which could not be fetched or parsed.
+     */
+    protected final Set<String> failedLocations = ConcurrentHashMap.newKeySet();
+    /**
+     * Number of downloads deduplicated by content.
+     */
+    protected final AtomicInteger duplicateCount = new AtomicInteger();
+    /**
+     * Metrics collector.
+     */
+    protected MetricsCollector metrics = new MetricsCollector();
+    /**
+     * Streaming flag: download to temporary files and scan them instead of parsing documents.
+     */
+    protected boolean streaming;
+    /**
+     * Deduplicate flag: map byte-identical content to one schema file.
+     */
+    protected boolean deduplicate;
+    /**
+     * XML catalog consulted before downloading, can be null.
+     */
+    protected XmlCatalog catalog;
+    /**
+     * Executor for parsing and blocking downloads, created on first use.
+     */
+    protected ExecutorService executor;
+
+    /**
+     * Creates a new instance.
+     * @param downloader           opened downloader
+     * @param downloaderOptions    downloader options
+     * @param log                  logging
+     * @param maxParallelDownloads maximum number of parallel downloads, 1 or less for sequential downloads
+     */
+    public SchemaCrawler(IDownloader downloader, String downloaderOptions, Log log, int maxParallelDownloads) {
+        this.downloader = downloader;
+        this.downloaderOptions = downloaderOptions;
+        this.log = log;
+        this.maxParallelDownloads = Math.max(maxParallelDownloads, 1);
+        this.downloadPermits = new Semaphore(this.maxParallelDownloads);
+    }
+
+    /**
+     * Downloads and parses (or scans, in streaming mode) the root document, e.g. the WSDL.
+     * Root documents are not deduplicated, each of them is written and released on its own.
+     * @param rootLocation location of root document
+     * @return root document or null if it could not be fetched or parsed
+     */
+    public SchemaFile fetchRoot(String rootLocation) {
+        String location = this.mapLocation(rootLocation);
+        if (this.streaming) {
+            return this.fetchToFile(null, location, false);
+        }
+        long downloadStart = System.nanoTime();
+        byte[] content = DownloadUtils.downloadBytes(this.downloader, location, this.log, this.downloaderOptions);
+        this.recordDownload(location, downloadStart, (content == null) ? 0 : content.length);
+        if (content != null) {
+            this.log.info("length of '" + location + "': " + content.length + " bytes");
+        }
+        return this.parse(null, location, content, false);
+    }
+
+    /**
+     * Resolves all schemas referenced by the given references and, transitively, by the resolved schemas.
+     * Schemas are keyed by namespace, the first reference of a namespace wins. Relative schema locations are
+     * resolved against the location of the referencing document, and all locations are normalized, so known
+     * namespaces and locations are skipped before any download.
+     * @param rootLocation   location of root document, to resolve relative schema locations
+     * @param rootReferences schema references of root document
+     * @return resolved schemas by namespace, in breadth-first reference order
+     * @throws InterruptedException if interrupted while waiting for downloads
+     */
+    public Map<String, SchemaFile> crawl(String rootLocation, List<SchemaReference> rootReferences)
+            throws InterruptedException {
+        Map<String, SchemaFile> resolvedSchemas = new LinkedHashMap<>();
+        List<SchemaReference> levelReferences = this.resolveReferences(rootLocation, rootReferences);
+        boolean rootLevel = true;
+        while ((levelReferences != null) && (levelReferences.isEmpty() == false)) {
+            // collect namespaces not known yet, in reference order
+            Map<String, String> pendingLocations = new LinkedHashMap<>();
+            for (SchemaReference oneReference : levelReferences) {
+                String targetNamespace = oneReference.getNamespace();
+                if ((rootLevel == false) && StringUtils.isEmpty(targetNamespace)) {
+                    continue;
+                }
+                if ((resolvedSchemas.containsKey(targetNamespace) == false)
+                        && (pendingLocations.containsKey(targetNamespace) == false)) {
+                    pendingLocations.put(targetNamespace, oneReference.getLocation());
+                }
+            }
+
+            // download and parse all of them
+            Map<String, SchemaFile> levelSchemas = this.fetchAll(pendingLocations);
+
+            // check each new schema if it contains other schemas
+            List<SchemaReference> nextLevelReferences = new ArrayList<>();
+            for (Map.Entry<String, SchemaFile> oneEntry : levelSchemas.entrySet()) {
+                SchemaFile oneFile = oneEntry.getValue();
+                resolvedSchemas.put(oneEntry.getKey(), oneFile);
+                nextLevelReferences.addAll(this.resolveReferences(oneFile.getSourceUrl(), oneFile.getReferences()));
+                oneFile.setProcessed(true);
+            }
+            levelReferences = nextLevelReferences;
+            rootLevel = false;
+        }
+        return resolvedSchemas;
+    }
+
+    /**
+     * Resolves the locations of the given references against the location of the referencing document.
+     * @param baseLocation location of referencing document
+     * @param references   schema references
+     * @return references with normalized absolute locations
+     */
+    protected List<SchemaReference> resolveReferences(String baseLocation, List<SchemaReference> references) {
+        List<SchemaReference> resolvedReferences = new ArrayList<>(references.size());
+        for (SchemaReference oneReference : references) {
+            resolvedReferences.add(new SchemaReference(oneReference.getNamespace(),
+                    UrlUtils.resolveLocation(baseLocation, oneReference.getLocation()), oneReference.getNode()));
+        }
+        return resolvedReferences;
+    }
+
+    /**
+     * Downloads and parses the given schemas. Downloads are started asynchronously, limited to
+     * the maximum number of parallel downloads, and parsed on the executor as soon as they are complete.
+     * In streaming mode, downloads are written to temporary files and scanned on the executor.
+     * Locations already fetched (or being fetched) by this crawler are not downloaded again.
+     * @param pendingLocations schema locations by namespace
+     * @return parsed schemas by namespace, in order of given locations, without schemas that could not be fetched
+     * @throws InterruptedException if interrupted while waiting for downloads
+     */
+    protected Map<String, SchemaFile> fetchAll(Map<String, String> pendingLocations) throws InterruptedException {
+        Map<String, CompletableFuture<SchemaFile>> futures = new LinkedHashMap<>();
+        for (Map.Entry<String, String> onePending : pendingLocations.entrySet()) {
+            futures.put(onePending.getKey(), this.fetch(onePending.getKey(), onePending.getValue()));
+        }
+        Map<String, SchemaFile> schemaFiles = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<SchemaFile>> oneEntry : futures.entrySet()) {
+            String location = pendingLocations.get(oneEntry.getKey());
+            try {
+                SchemaFile schemaFile = oneEntry.getValue().get();
+                if (schemaFile != null) {
+                    schemaFiles.put(oneEntry.getKey(), schemaFile);
+                } else {
+                    this.failedLocations.add(location);
+                }
+            } catch (ExecutionException ex) {
+                this.log.error("could not fetch schema: " + ex.getCause(), ex.getCause());
+                this.failedLocations.add(location);
+            }
+        }
+        return schemaFiles;
+    }
+
+    /**
+     * Returns the fetch of the given location, starting it if it was not started yet, so concurrent
+     * requests of the same location share one download. The location is mapped by XML catalog first.
+     * @param namespace      namespace
+     * @param schemaLocation schema location
+     * @return future of parsed schema, completed with null if it could not be fetched or parsed
+     * @throws InterruptedException if interrupted while waiting for a download permit
+     */
+    protected CompletableFuture<SchemaFile> fetch(String namespace, String schemaLocation)
+            throws InterruptedException {
+        String location = this.mapLocation(schemaLocation);
+        CompletableFuture<SchemaFile> result = new CompletableFuture<>();
+        CompletableFuture<SchemaFile> existing = this.fetches.putIfAbsent(location, result);
+        if (existing != null) {
+            return existing;
+        }
+        ExecutorService workExecutor = this.getExecutor();
+        CompletableFuture<SchemaFile> fetch;
+        try {
+            this.downloadPermits.acquire();
+        } catch (InterruptedException ex) {
+            result.complete(null);
+            throw ex;
+        }
+        if (this.streaming) {
+            fetch = CompletableFuture.supplyAsync(() -> this.fetchToFile(namespace, location, this.deduplicate),
+                    workExecutor);
+            fetch.whenComplete((schemaFile, ex) -> this.downloadPermits.release());
+        } else {
+            long downloadStart = System.nanoTime();
+            CompletableFuture<byte[]> download = DownloadUtils.downloadBytesAsync(this.downloader, location,
+                    this.log, this.downloaderOptions, workExecutor);
+            download.whenComplete((content, ex) -> {
+                this.downloadPermits.release();
+                this.recordDownload(location, downloadStart, (content == null) ? 0 : content.length);
+            });
+            fetch = download.thenApplyAsync(content -> this.parse(namespace, location, content, this.deduplicate),
+                    workExecutor);
+        }
+        fetch.whenComplete((schemaFile, ex) -> {
+            if (ex != null) {
+                result.completeExceptionally(ex);
+            } else {
+                result.complete(schemaFile);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Maps the given location by XML catalog, if set.
+     * @param location location
+     * @return location of catalog entry or given location if no entry matches
+     */
+    protected String mapLocation(String location) {
+        if (this.catalog == null) {
+            return location;
+        }
+        String catalogLocation = this.catalog.resolve(UrlUtils.resolveLocation(null, location));
+        if (catalogLocation == null) {
+            return location;
+        }
+        this.log.debug("XML catalog maps '" + location + "' to '" + catalogLocation + "'");
+        return catalogLocation;
+    }
+
+    /**
+     * Parses one downloaded schema.
+     * @param namespace  namespace
+     * @param location   schema location
+     * @param xsdContent downloaded content, can be null
+     * @param dedupe     true to map byte-identical content to a known schema
+     * @return parsed schema or null if it could not be fetched or parsed
+     */
+    protected SchemaFile parse(String namespace, String location, byte[] xsdContent, boolean dedupe) {
+        if ((xsdContent == null) || (xsdContent.length == 0)) {
+            return null;
+        }
+        String contentHash = null;
+        if (dedupe) {
+            contentHash = HashUtils.sha256Hex(xsdContent);
+            SchemaFile existingFile = this.findDuplicate(contentHash, location);
+            if (existingFile != null) {
+                return existingFile;
+            }
+        }
+        SchemaFile schemaFile = new SchemaFile();
+        schemaFile.setSourceUrl(location);
+        schemaFile.setNamespace(namespace);
+        schemaFile.setContentHash(contentHash);
+        long parseStart = System.nanoTime();
+        boolean parsed = schemaFile.parseXml(xsdContent);
+        this.metrics.get(location).setParseNanos(System.nanoTime() - parseStart);
+        if (parsed) {
+            return this.indexContent(schemaFile);
+        }
+        return null;
+    }
+
+    /**
+     * Downloads one schema to a temporary file and scans it for schema references.
+     * @param namespace namespace
+     * @param location  schema location
+     * @param dedupe    true to map byte-identical content to a known schema
+     * @return scanned schema or null if it could not be fetched or scanned
+     */
+    protected SchemaFile fetchToFile(String namespace, String location, boolean dedupe) {
+        Path tmpFile;
+        try {
+            tmpFile = Files.createTempFile("mvndlwsdl-", ".xml");
+            this.temporaryFiles.add(tmpFile);
+        } catch (IOException ex) {
+            this.log.error("could not create temporary file: " + ex, ex);
+            return null;
+        }
+        long downloadStart = System.nanoTime();
+        boolean downloaded = DownloadUtils.downloadToFile(this.downloader, location, this.log,
+                this.downloaderOptions, tmpFile);
+        this.recordDownload(location, downloadStart, downloaded ? tmpFile.toFile().length() : 0);
+        if (downloaded) {
+            String contentHash = null;
+            if (dedupe) {
+                contentHash = HashUtils.sha256Hex(tmpFile);
+                SchemaFile existingFile = this.findDuplicate(contentHash, location);
+                if (existingFile != null) {
+                    return existingFile;
+                }
+            }
+            SchemaFile schemaFile = new SchemaFile();
+            schemaFile.setSourceUrl(location);
+            schemaFile.setNamespace(namespace);
+            schemaFile.setContentHash(contentHash);
+            long scanStart = System.nanoTime();
+            boolean scanned = schemaFile.scanXml(tmpFile.toFile());
+            this.metrics.get(location).setParseNanos(System.nanoTime() - scanStart);
+            if (scanned) {
+                return this.indexContent(schemaFile);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records the download time and size of the given location.
+     * @param location      schema location
+     * @param downloadStart start of download in nanoseconds
+     * @param bytes         number of downloaded bytes
+     */
+    protected void recordDownload(String location, long downloadStart, long bytes) {
+        ResourceMetrics resourceMetrics = this.metrics.get(location);
+        resourceMetrics.setTotalNanos(System.nanoTime() - downloadStart);
+        resourceMetrics.setBytes(bytes);
+    }
+
+    /**
+     * Returns the schema with the given content hash, if already known.
+     * @param contentHash content hash, can be null
+     * @param location    location of the new download, for logging
+     * @return known schema or null if not known
+     */
+    protected SchemaFile findDuplicate(String contentHash, String location) {
+        if (contentHash == null) {
+            return null;
+        }
+        SchemaFile existingFile = this.contentIndex.get(contentHash);
+        if (existingFile != null) {
+            this.duplicateCount.incrementAndGet();
+            this.log.debug("content of '" + location + "' is identical to '" + existingFile.getSourceUrl() + "'");
+        }
+        return existingFile;
+    }
+
+    /**
+     * Adds the given schema to the content index, if it has a content hash.
+     * If a schema with the same content was indexed concurrently, that one is returned instead.
+     * @param schemaFile schema to index
+     * @return indexed schema with the same content
+     */
+    protected SchemaFile indexContent(SchemaFile schemaFile) {
+        if (schemaFile.getContentHash() == null) {
+            return schemaFile;
+        }
+        SchemaFile existingFile = this.contentIndex.putIfAbsent(schemaFile.getContentHash(), schemaFile);
+        if (existingFile != null) {
+            this.duplicateCount.incrementAndGet();
+            return existingFile;
+        }
+        return schemaFile;
+    }
+
+    /**
+     * Returns the streaming flag.
+     * @return true to download to temporary files and scan them instead of parsing documents
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Sets the streaming flag.
+     * @param streaming true to download to temporary files and scan them instead of parsing documents
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Returns the metrics collector.
+     * @return metrics collector
+     */
+    public MetricsCollector getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the metrics collector.
+     * @param metrics metrics collector
+     */
+    public void setMetrics(MetricsCollector metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the deduplicate flag.
+     * @return true to map byte-identical content to one schema file
+     */
+    public boolean isDeduplicate() {
+        return deduplicate;
+    }
+
+    /**
+     * Sets the deduplicate flag.
+     * @param deduplicate true to map byte-identical content to one schema file
+     */
+    public void setDeduplicate(boolean deduplicate) {
+        this.deduplicate = deduplicate;
+    }
+
+    /**
+     * Returns the XML catalog consulted before downloading.
+     * @return XML catalog, can be null
+     */
+    public XmlCatalog getCatalog() {
+        return this.catalog;
+    }
+
+    /**
+     * Sets the XML catalog consulted before downloading.
+     * @param catalog XML catalog, can be null
+     */
+    public void setCatalog(XmlCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Returns the locations which could not be fetched or parsed, so the resolved schemas are incomplete.
+     * @return failed locations, can be empty
+     */
+    public Set<String> getFailedLocations() {
+        return Collections.unmodifiableSet(this.failedLocations);
+    }
+
+    /**
+     * Returns the number of downloads deduplicated by content.
+     * @return number of duplicates
+     */
+    public int getDuplicateCount() {
+        return this.duplicateCount.get();
+    }
+
+    /**
+     * Returns the download executor, creating it if needed.
+     * @return download executor
+     */
+    protected synchronized ExecutorService getExecutor() {
+        if (this.executor == null) {
+            this.executor = WorkerThreads.newExecutor("mvndlwsdl-worker-", this.maxParallelDownloads);
+        }
+        return this.executor;
+    }
+
+    /**
+     * Closes the crawler, shutting down the download executor and deleting temporary files.
+     */
+    @Override
+    public synchronized void close() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+        Path tmpFile;
+        while ((tmpFile = this.temporaryFiles.poll()) != null) {
+            try {
+                Files.deleteIfExists(tmpFile);
+            } catch (IOException ex) {
+                this.log.warn("could not delete temporary file: " + tmpFile);
+            }
+        }
+    }
+
+}
@@ -1,7 +1,11 @@
 package com.nilscoding.maven.mvndlwsdl.utils;
 
 import org.w3c.dom.Document;
+import java.io.File;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Schema file.
@@ -22,6 +26,19 @@ public class SchemaFile implements Serializable {
      * XML document.
      */
     protected Document document;
+    /**
+     * Local content file, if streamed instead of parsed to a document.
+     */
+    protected File contentFile;
+    /**
+     * Reference index: schema references of the document or streamed content file,
+     * built once when parsing or scanning.
+     */
+    protected List<SchemaReference> references = Collections.emptyList();
+    /**
+     * SHA-256 hash of the downloaded content, only set if deduplicating.
+     */
+    protected String contentHash;
     /**
      * Processed flag.
      */
@@ -44,13 +61,52 @@ public class SchemaFile implements Serializable {
      */
     public boolean parseXml(String fileDataStr) {
         if (fileDataStr == null) {
-            this.document = null;
+            this.setDocument(null);
         } else {
-            this.document = XmlUtils.loadXmlFromString(fileDataStr);
+            this.setDocument(XmlUtils.loadXmlFromString(fileDataStr));
         }
         return (this.document != null);
     }
 
+    /**
+     * Parses the XML document from raw bytes, letting the parser detect the encoding.
+     * @param fileData file data to set
+     * @return true if data was parsed to XML document, false otherwise
+     */
+    public boolean parseXml(byte[] fileData) {
+        if (fileData == null) {
+            this.setDocument(null);
+        } else {
+            this.setDocument(XmlUtils.loadXmlFromBytes(fileData));
+        }
+        return (this.document != null);
+    }
+
+    /**
+     * Scans the local content file in streaming mode, without parsing it to a document.
+     * @param file local content file
+     * @return true if file was scanned for schema references, false otherwise
+     */
+    public boolean scanXml(File file) {
+        this.setDocument(null);
+        this.contentFile = file;
+        try {
+            this.references = Collections.unmodifiableList(XmlStreamUtils.findSchemaReferences(file.toPath()));
+            return true;
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the references to other schemas (elements with <code>schemaLocation</code> attribute).
+     * For documents, the references contain the nodes, so they can be changed without searching again.
+     * @return schema references in document order, can be empty
+     */
+    public List<SchemaReference> getReferences() {
+        return references;
+    }
+
     /**
      * Returns the namespace.
      * @return namespace
@@ -92,11 +148,66 @@ public class SchemaFile implements Serializable {
     }
 
     /**
-     * Sets the XML document.
+     * Sets the XML document, building the reference index.
      * @param document XML document to set
      */
     public void setDocument(Document document) {
         this.document = document;
+        if (document == null) {
+            this.references = Collections.emptyList();
+        } else {
+            this.references = Collections.unmodifiableList(XmlUtils.findSchemaReferences(document));
+        }
+    }
+
+    /**
+     * Returns the local content file.
+     * @return local content file, null if parsed to a document
+     */
+    public File getContentFile() {
+        return contentFile;
+    }
+
+    /**
+     * Sets the local content file.
+     * @param contentFile local content file to set
+     */
+    public void setContentFile(File contentFile) {
+        this.contentFile = contentFile;
+    }
+
+    /**
+     * Returns the SHA-256 hash of the downloaded content.
+     * @return content hash as lower case hex string, null if not calculated
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Sets the SHA-256 hash of the downloaded content.
+     * @param contentHash content hash to set
+     */
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Releases the document and the content file, e.g. after the schema was written. The reference index is kept
+     * without document nodes, so the schema can still be resolved by other crawls.
+     */
+    public void release() {
+        List<SchemaReference> detachedReferences = new ArrayList<>(this.references.size());
+        for (SchemaReference oneReference : this.references) {
+            detachedReferences.add(new SchemaReference(oneReference.getNamespace(), oneReference.getLocation()));
+        }
+        this.references = Collections.unmodifiableList(detachedReferences);
+        this.document = null;
+        if (this.contentFile != null) {
+            // deleted again when the crawler is closed, if this fails
+            this.contentFile.delete();
+            this.contentFile = null;
+        }
     }
 
     /**
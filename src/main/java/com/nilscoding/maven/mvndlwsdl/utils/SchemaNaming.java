@@ -0,0 +1,212 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Naming strategy for schema files. Names are unique within one instance, so one instance should be used
+ * for all files written to the same folder: the schemas of one WSDL are added first, then their names are
+ * created at once.
+ * @author NilsCoding
+ */
+public class SchemaNaming {
+
+    /**
+     * Strategy: counting number in breadth-first reference order, e.g. <code>someservice_0.xsd</code>.
+     */
+    public static final String INDEX = "index";
+
+    /**
+     * Strategy: short hash of namespace and source URL, e.g. <code>someservice_3f2a9c1e.xsd</code>.
+     */
+    public static final String HASH = "hash";
+
+    /**
+     * Strategy: sanitized namespace, e.g. <code>someservice_example.com_orders_v1.xsd</code>.
+     */
+    public static final String NAMESPACE = "namespace";
+
+    /**
+     * Number of hex digits of short hashes.
+     */
+    private static final int SHORT_HASH_LENGTH = 8;
+
+    /**
+     * Maximum length of a sanitized namespace, longer ones are shortened by hash.
+     */
+    private static final int MAX_NAMESPACE_LENGTH = 64;
+
+    /**
+     * Naming strategy.
+     */
+    protected final String strategy;
+
+    /**
+     * Names by schema of the schemas added since the last names were created, before collisions are resolved.
+     */
+    protected final Map<SchemaFile, String> candidateNames = new IdentityHashMap<>();
+
+    /**
+     * Schemas named so far.
+     */
+    protected final Set<SchemaFile> namedSchemas = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Names created so far, without file extension.
+     */
+    protected final Set<String> usedNames = new HashSet<>();
+
+    /**
+     * Creates a new instance.
+     * @param strategy naming strategy, one of {@link #INDEX}, {@link #HASH} or {@link #NAMESPACE},
+     *                 empty for {@link #INDEX}
+     * @throws IllegalArgumentException if the strategy is unknown
+     */
+    public SchemaNaming(String strategy) {
+        if (StringUtils.isEmpty(strategy)) {
+            this.strategy = INDEX;
+        } else if (INDEX.equals(strategy.trim()) || HASH.equals(strategy.trim())
+                || NAMESPACE.equals(strategy.trim())) {
+            this.strategy = strategy.trim();
+        } else {
+            throw new IllegalArgumentException("unknown naming '" + strategy + "', use '" + INDEX + "', '" + HASH
+                    + "' or '" + NAMESPACE + "'");
+        }
+    }
+
+    /**
+     * Returns the naming strategy.
+     * @return naming strategy
+     */
+    public String getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Adds the given schema to be named.
+     * @param basename   base name of the WSDL
+     * @param index      index of the schema in breadth-first reference order
+     * @param count      number of schemas named after the WSDL
+     * @param schemaFile schema to name
+     */
+    public void add(String basename, int index, int count, SchemaFile schemaFile) {
+        String name;
+        if (HASH.equals(this.strategy)) {
+            name = basename + "_" + shortHash(schemaFile.getNamespace() + " " + schemaFile.getSourceUrl());
+        } else if (NAMESPACE.equals(this.strategy)) {
+            name = basename + "_" + sanitize(schemaFile.getNamespace(), schemaFile.getSourceUrl());
+        } else {
+            name = basename + "_" + StringUtils.formatLeadingZeros(index, count);
+        }
+        this.candidateNames.put(schemaFile, name);
+    }
+
+    /**
+     * Checks if the given schema was added to be named.
+     * @param schemaFile schema
+     * @return true if added, also if already named
+     */
+    public boolean contains(SchemaFile schemaFile) {
+        return this.candidateNames.containsKey(schemaFile) || this.namedSchemas.contains(schemaFile);
+    }
+
+    /**
+     * Creates unique file names for the schemas added since the last call. If several schemas would get the
+     * same name, or the name was created before, the short hash of its source URL is appended to each of them,
+     * remaining collisions are numbered in order of source URL and namespace. So the names do not depend on
+     * the order the schemas were added in.
+     * @return file names by schema
+     */
+    public Map<SchemaFile, String> createNames() {
+        Map<String, List<SchemaFile>> schemasByName = groupByName(this.candidateNames);
+        Map<SchemaFile, String> hashedNames = new IdentityHashMap<>();
+        for (Map.Entry<String, List<SchemaFile>> oneEntry : schemasByName.entrySet()) {
+            boolean unique = (oneEntry.getValue().size() == 1) && (this.usedNames.contains(oneEntry.getKey()) == false);
+            for (SchemaFile oneFile : oneEntry.getValue()) {
+                hashedNames.put(oneFile, unique ? oneEntry.getKey()
+                        : oneEntry.getKey() + "_" + shortHash(oneFile.getSourceUrl()));
+            }
+        }
+        Map<String, List<SchemaFile>> schemasByHashedName = groupByName(hashedNames);
+        Set<String> reservedNames = new HashSet<>(this.usedNames);
+        reservedNames.addAll(schemasByHashedName.keySet());
+        Map<SchemaFile, String> names = new IdentityHashMap<>();
+        for (Map.Entry<String, List<SchemaFile>> oneEntry : schemasByHashedName.entrySet()) {
+            List<SchemaFile> sameNameSchemas = oneEntry.getValue();
+            sameNameSchemas.sort(Comparator.comparing((SchemaFile file) -> String.valueOf(file.getSourceUrl()))
+                    .thenComparing(file -> String.valueOf(file.getNamespace())));
+            // the first schema keeps the name, unless it was created before
+            int number = 2;
+            for (int i = 0; i < sameNameSchemas.size(); i++) {
+                String name = oneEntry.getKey();
+                if ((i > 0) || this.usedNames.contains(name)) {
+                    while (reservedNames.contains(oneEntry.getKey() + "_" + number)) {
+                        number++;
+                    }
+                    name = oneEntry.getKey() + "_" + number;
+                    reservedNames.add(name);
+                }
+                names.put(sameNameSchemas.get(i), name + ".xsd");
+            }
+        }
+        this.usedNames.addAll(reservedNames);
+        this.namedSchemas.addAll(names.keySet());
+        this.candidateNames.clear();
+        return names;
+    }
+
+    /**
+     * Groups the given schemas by name, sorted by name.
+     * @param namesBySchema names by schema
+     * @return schemas by name
+     */
+    protected static Map<String, List<SchemaFile>> groupByName(Map<SchemaFile, String> namesBySchema) {
+        Map<String, List<SchemaFile>> schemasByName = new TreeMap<>();
+        for (Map.Entry<SchemaFile, String> oneEntry : namesBySchema.entrySet()) {
+            schemasByName.computeIfAbsent(oneEntry.getValue(), name -> new ArrayList<>()).add(oneEntry.getKey());
+        }
+        return schemasByName;
+    }
+
+    /**
+     * Converts the given namespace to a file name part: the URL scheme is removed, all characters other
+     * than letters, digits, dot and minus are replaced by underscores.
+     * @param namespace namespace, can be empty
+     * @param sourceUrl source URL, hashed if the namespace is empty
+     * @return sanitized namespace
+     */
+    public static String sanitize(String namespace, String sourceUrl) {
+        if (StringUtils.isEmpty(namespace)) {
+            return shortHash(sourceUrl);
+        }
+        String name = namespace.trim().replaceFirst("^[a-zA-Z][a-zA-Z0-9+.-]*://", "")
+                .replaceAll("[^a-zA-Z0-9.-]+", "_")
+                .replaceAll("^[_.]+|[_.]+$", "");
+        if (name.isEmpty()) {
+            return shortHash(namespace);
+        }
+        if (name.length() > MAX_NAMESPACE_LENGTH) {
+            name = name.substring(0, MAX_NAMESPACE_LENGTH - SHORT_HASH_LENGTH - 1) + "_" + shortHash(namespace);
+        }
+        return name;
+    }
+
+    /**
+     * Calculates a short hash of the given string.
+     * @param str string to hash, can be null
+     * @return first hex digits of the SHA-256 hash
+     */
+    public static String shortHash(String str) {
+        byte[] data = String.valueOf(str).getBytes(StandardCharsets.UTF_8);
+        return HashUtils.sha256Hex(data).substring(0, SHORT_HASH_LENGTH);
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import org.w3c.dom.Node;
+import java.io.Serializable;
+
+/**
+ * Reference to an external schema, e.g. from an import or include element.
+ * @author NilsCoding
+ */
+public class SchemaReference implements Serializable {
+    private static final long serialVersionUID = 4381260839371447106L;
+
+    /**
+     * Namespace, can be null.
+     */
+    protected String namespace;
+    /**
+     * Schema location.
+     */
+    protected String location;
+    /**
+     * Referencing element, null if not parsed to a document.
+     */
+    protected transient Node node;
+
+    /**
+     * Creates a new instance.
+     */
+    public SchemaReference() {
+    }
+
+    /**
+     * Creates a new instance with given values.
+     * @param namespace namespace, can be null
+     * @param location  schema location
+     */
+    public SchemaReference(String namespace, String location) {
+        this.namespace = namespace;
+        this.location = location;
+    }
+
+    /**
+     * Creates a new instance with given values.
+     * @param namespace namespace, can be null
+     * @param location  schema location
+     * @param node      referencing element
+     */
+    public SchemaReference(String namespace, String location, Node node) {
+        this.namespace = namespace;
+        this.location = location;
+        this.node = node;
+    }
+
+    /**
+     * Returns the namespace.
+     * @return namespace, can be null
+     */
+    public String getNamespace() {
+        return namespace;
+    }
+
+    /**
+     * Sets the namespace.
+     * @param namespace namespace to set
+     */
+    public void setNamespace(String namespace) {
+        this.namespace = namespace;
+    }
+
+    /**
+     * Returns the schema location.
+     * @return schema location
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Sets the schema location.
+     * @param location schema location to set
+     */
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    /**
+     * Returns the referencing element.
+     * @return referencing element, null if not parsed to a document
+     */
+    public Node getNode() {
+        return node;
+    }
+
+    /**
+     * Sets the referencing element.
+     * @param node referencing element to set
+     */
+    public void setNode(Node node) {
+        this.node = node;
+    }
+}
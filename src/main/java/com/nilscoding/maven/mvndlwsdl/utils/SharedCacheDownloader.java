@@ -0,0 +1,264 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import org.apache.maven.plugin.logging.Log;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloader sharing downloaded content with all executions in the same JVM, e.g. modules of a parallel
+ * reactor build. Content is cached by downloader class, downloader options and URL, concurrent requests
+ * of the same URL share one download. The cache is scoped (e.g. to the build session), so a long-running
+ * JVM does not serve content of a previous build; a new scope clears the cache.
+ * Failed downloads are not cached, and an execution joining a download which failed downloads again itself.
+ * @author NilsCoding
+ */
+public class SharedCacheDownloader implements IDownloader {
+
+    /**
+     * Default maximum size of all cached content in megabytes; content beyond is downloaded, but not kept.
+     */
+    public static final int DEFAULT_MAX_CACHED_MB = 64;
+
+    /**
+     * Bytes per megabyte.
+     */
+    protected static final long BYTES_PER_MB = 1024L * 1024L;
+
+    /**
+     * Cache status of content shared by another execution.
+     */
+    public static final String CACHE_STATUS_SHARED = "shared";
+
+    /**
+     * Downloads by cache key.
+     */
+    protected static final Map<String, CompletableFuture<byte[]>> SHARED_DOWNLOADS = new ConcurrentHashMap<>();
+
+    /**
+     * Size of all cached content.
+     */
+    protected static final AtomicLong CACHED_BYTES = new AtomicLong();
+
+    /**
+     * Scope of cached content.
+     */
+    private static String currentScope;
+
+    /**
+     * Delegate downloading content not cached yet.
+     */
+    protected final IDownloader delegate;
+    /**
+     * Downloader class name, part of the cache key.
+     */
+    protected final String downloaderClass;
+    /**
+     * Maximum size of all cached content this instance adds content to.
+     */
+    protected final long maxCachedBytes;
+    /**
+     * Metrics collector, can be null.
+     */
+    protected MetricsCollector metrics;
+
+    /**
+     * Creates a new instance.
+     * @param delegate        opened delegate
+     * @param downloaderClass downloader class name as configured, part of the cache key
+     * @param scope           cache scope, e.g. start time of the build session
+     * @param maxCachedMb     maximum size of all cached content in megabytes, 0 to only share concurrent downloads
+     */
+    public SharedCacheDownloader(IDownloader delegate, String downloaderClass, String scope, int maxCachedMb) {
+        this.delegate = delegate;
+        this.downloaderClass = String.valueOf(downloaderClass);
+        this.maxCachedBytes = Math.max(maxCachedMb, 0) * BYTES_PER_MB;
+        enterScope(String.valueOf(scope));
+    }
+
+    /**
+     * Enters the given scope, clearing the cache if it differs from the current one.
+     * @param scope cache scope
+     */
+    protected static synchronized void enterScope(String scope) {
+        if (scope.equals(currentScope) == false) {
+            SHARED_DOWNLOADS.clear();
+            CACHED_BYTES.set(0);
+            currentScope = scope;
+        }
+    }
+
+    /**
+     * Reserves the given size in the cache, if the maximum size is not exceeded.
+     * @param size size in bytes
+     * @return true if reserved, false if the content does not fit
+     */
+    protected boolean reserve(long size) {
+        while (true) {
+            long cachedBytes = CACHED_BYTES.get();
+            if (cachedBytes + size > this.maxCachedBytes) {
+                return false;
+            }
+            if (CACHED_BYTES.compareAndSet(cachedBytes, cachedBytes + size)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the cache key of the given URL.
+     * @param url        URL
+     * @param optionsStr options string
+     * @return cache key
+     */
+    protected String cacheKey(String url, String optionsStr) {
+        return this.downloaderClass + '\n' + optionsStr + '\n' + url;
+    }
+
+    /**
+     * Downloads a text file from given URL, decoded from the shared content.
+     * @param url        URL to download from
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @return downloaded text file as string or null if download was not possible
+     */
+    @Override
+    public String downloadFile(String url, Log log, String optionsStr) {
+        return XmlUtils.toXmlString(this.downloadBytes(url, log, optionsStr));
+    }
+
+    /**
+     * Downloads a text file from given URL asynchronously, decoded from the shared content.
+     * @param url        URL to download from
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @param executor   executor for blocking work
+     * @return future of downloaded text file as string
+     */
+    @Override
+    public CompletableFuture<String> downloadFileAsync(String url, Log log, String optionsStr, Executor executor) {
+        return this.downloadBytesAsync(url, log, optionsStr, executor).thenApply(XmlUtils::toXmlString);
+    }
+
+    /**
+     * Downloads a file from given URL as raw bytes, sharing the download.
+     * @param url        URL to download from
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @return downloaded file content or null if download was not possible
+     */
+    @Override
+    public byte[] downloadBytes(String url, Log log, String optionsStr) {
+        try {
+            return this.downloadBytesAsync(url, log, optionsStr, Runnable::run).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException ex) {
+            log.error("could not fetch file from '" + url + "': " + ex.getCause(), ex.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * Downloads a file from given URL as raw bytes asynchronously. If the URL is downloaded or was downloaded
+     * by another execution, that download is used.
+     * @param url        URL to download from
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @param executor   executor for blocking work
+     * @return future of downloaded file content
+     */
+    @Override
+    public CompletableFuture<byte[]> downloadBytesAsync(String url, Log log, String optionsStr,
+                                                        Executor executor) {
+        if (NioDownloader.isLocal(url)) {
+            return this.delegate.downloadBytesAsync(url, log, optionsStr, executor);
+        }
+        String key = this.cacheKey(url, optionsStr);
+        CompletableFuture<byte[]> download = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = SHARED_DOWNLOADS.putIfAbsent(key, download);
+        if (existing != null) {
+            return existing.handle((content, ex) -> (ex == null) ? content : null).thenCompose(content -> {
+                if (content == null) {
+                    // failed for the other execution, so try again
+                    return this.delegate.downloadBytesAsync(url, log, optionsStr, executor);
+                }
+                if (this.metrics != null) {
+                    this.metrics.get(url).setCacheStatus(CACHE_STATUS_SHARED);
+                }
+                return CompletableFuture.completedFuture(content);
+            });
+        }
+        CompletableFuture<byte[]> delegateDownload;
+        try {
+            delegateDownload = this.delegate.downloadBytesAsync(url, log, optionsStr, executor);
+        } catch (RuntimeException ex) {
+            delegateDownload = new CompletableFuture<>();
+            delegateDownload.completeExceptionally(ex);
+        }
+        delegateDownload.whenComplete((content, ex) -> {
+            if ((ex != null) || (content == null) || (this.reserve(content.length) == false)) {
+                // executions which joined this download still get the content
+                SHARED_DOWNLOADS.remove(key, download);
+            }
+            if (ex != null) {
+                download.completeExceptionally(ex);
+            } else {
+                download.complete(content);
+            }
+        });
+        return download;
+    }
+
+    /**
+     * Downloads a file from given URL to a local file. Shared content is written directly,
+     * other content is downloaded by the delegate without caching, as it may be large.
+     * @param url        URL to download from
+     * @param log        logging
+     * @param optionsStr options string (specific to implementation)
+     * @param target     local file to write to
+     * @return true if file was downloaded, false if download was not possible
+     * @throws IOException on write errors
+     */
+    @Override
+    public boolean downloadToFile(String url, Log log, String optionsStr, Path target) throws IOException {
+        CompletableFuture<byte[]> existing = SHARED_DOWNLOADS.get(this.cacheKey(url, optionsStr));
+        byte[] content = ((existing != null) && existing.isDone() && (existing.isCompletedExceptionally() == false))
+                ? existing.join() : null;
+        if (content == null) {
+            return this.delegate.downloadToFile(url, log, optionsStr, target);
+        }
+        Files.write(target, content);
+        if (this.metrics != null) {
+            this.metrics.get(url).setCacheStatus(CACHE_STATUS_SHARED);
+        }
+        return true;
+    }
+
+    /**
+     * Sets the metrics collector, passing it to the delegate.
+     * @param metrics metrics collector
+     */
+    @Override
+    public void setMetrics(MetricsCollector metrics) {
+        this.metrics = metrics;
+        this.delegate.setMetrics(metrics);
+    }
+
+    /**
+     * Closes the delegate. Cached content is kept for other executions.
+     */
+    @Override
+    public void close() {
+        this.metrics = null;
+        this.delegate.close();
+    }
+
+}
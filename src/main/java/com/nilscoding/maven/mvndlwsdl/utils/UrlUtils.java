@@ -0,0 +1,127 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Locale;
+
+/**
+ * URL utils.
+ * @author NilsCoding
+ */
+public final class UrlUtils {
+
+    /**
+     * Default port of HTTP.
+     */
+    private static final int HTTP_DEFAULT_PORT = 80;
+    /**
+     * Default port of HTTPS.
+     */
+    private static final int HTTPS_DEFAULT_PORT = 443;
+
+    private UrlUtils() {
+    }
+
+    /**
+     * Resolves a schema location against the location of the referencing document and normalizes it,
+     * so equal locations are detected before downloading.
+     * @param baseLocation location of referencing document, can be null
+     * @param location     schema location, absolute or relative
+     * @return normalized absolute location, or given location if it cannot be resolved
+     */
+    public static String resolveLocation(String baseLocation, String location) {
+        if (StringUtils.isEmpty(location)) {
+            return location;
+        }
+        String trimmedLocation = location.trim();
+        try {
+            URI locationUri = new URI(trimmedLocation);
+            if (locationUri.isAbsolute()) {
+                return normalize(locationUri);
+            }
+            if (StringUtils.isEmpty(baseLocation)) {
+                return trimmedLocation;
+            }
+            URI baseUri = new URI(baseLocation.trim());
+            if (baseUri.isOpaque()) {
+                return resolveOpaque(baseUri, locationUri);
+            }
+            return normalize(baseUri.resolve(locationUri));
+        } catch (URISyntaxException | IllegalArgumentException ex) {
+            return trimmedLocation;
+        }
+    }
+
+    /**
+     * Resolves a relative location against an opaque base: the entry path of a <code>jar:</code> URL
+     * (after <code>!/</code>) or the resource path of a <code>classpath:</code> URL.
+     * @param baseUri     opaque base URI
+     * @param locationUri relative location
+     * @return resolved location
+     * @throws URISyntaxException if the base has no resolvable path
+     */
+    protected static String resolveOpaque(URI baseUri, URI locationUri) throws URISyntaxException {
+        String specificPart = baseUri.getRawSchemeSpecificPart();
+        String prefix;
+        String entryPath;
+        if ("jar".equalsIgnoreCase(baseUri.getScheme()) && (specificPart.indexOf("!/") >= 0)) {
+            int separatorIndex = specificPart.indexOf("!/");
+            prefix = baseUri.getScheme() + ":" + specificPart.substring(0, separatorIndex + 1);
+            entryPath = specificPart.substring(separatorIndex + 1);
+        } else if (NioDownloader.CLASSPATH_SCHEME.equalsIgnoreCase(baseUri.getScheme())) {
+            prefix = baseUri.getScheme() + ":";
+            entryPath = "/" + specificPart;
+        } else {
+            throw new URISyntaxException(baseUri.toString(), "no path to resolve against");
+        }
+        String resolvedPath = new URI(entryPath).resolve(locationUri).normalize().toString();
+        if (prefix.endsWith("!") == false) {
+            // classpath resources have no leading slash
+            resolvedPath = resolvedPath.substring(1);
+        }
+        return prefix + resolvedPath;
+    }
+
+    /**
+     * Normalizes the given URI: lower case scheme and host, no default port, no dot segments, no fragment.
+     * @param uri URI to normalize
+     * @return normalized URI as string
+     */
+    public static String normalize(URI uri) {
+        if (uri.isOpaque()) {
+            return uri.toString();
+        }
+        URI normalizedUri = uri.normalize();
+        StringBuilder sb = new StringBuilder();
+        String scheme = normalizedUri.getScheme();
+        if (scheme != null) {
+            scheme = scheme.toLowerCase(Locale.ROOT);
+            sb.append(scheme).append(':');
+        }
+        if (normalizedUri.getRawAuthority() != null) {
+            sb.append("//");
+            if (normalizedUri.getHost() == null) {
+                sb.append(normalizedUri.getRawAuthority());
+            } else {
+                if (normalizedUri.getRawUserInfo() != null) {
+                    sb.append(normalizedUri.getRawUserInfo()).append('@');
+                }
+                sb.append(normalizedUri.getHost().toLowerCase(Locale.ROOT));
+                int port = normalizedUri.getPort();
+                boolean defaultPort = (("http".equals(scheme) && (port == HTTP_DEFAULT_PORT))
+                        || ("https".equals(scheme) && (port == HTTPS_DEFAULT_PORT)));
+                if ((port != -1) && (defaultPort == false)) {
+                    sb.append(':').append(port);
+                }
+            }
+        }
+        if (normalizedUri.getRawPath() != null) {
+            sb.append(normalizedUri.getRawPath());
+        }
+        if (normalizedUri.getRawQuery() != null) {
+            sb.append('?').append(normalizedUri.getRawQuery());
+        }
+        return sb.toString();
+    }
+
+}
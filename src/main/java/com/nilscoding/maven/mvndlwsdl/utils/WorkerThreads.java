@@ -0,0 +1,32 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker threads for downloads and parsing. This is the implementation for Java 8 to 20, using a bounded pool
+ * of platform threads; the multi-release jar contains an implementation for Java 21+ using virtual threads.
+ * @author NilsCoding
+ */
+public final class WorkerThreads {
+
+    private WorkerThreads() {
+    }
+
+    /**
+     * Creates a new executor with daemon platform threads.
+     * @param namePrefix     prefix of thread names
+     * @param maxThreadCount maximum number of threads
+     * @return new executor, to be shut down by caller
+     */
+    public static ExecutorService newExecutor(String namePrefix, int maxThreadCount) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(maxThreadCount, 1), runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+}
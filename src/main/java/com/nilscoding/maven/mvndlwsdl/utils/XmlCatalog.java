@@ -0,0 +1,289 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import org.apache.maven.plugin.logging.Log;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * OASIS XML catalog, mapping schema and WSDL locations to local files or mirrors before they are downloaded.
+ * Supported entries are <code>uri</code>, <code>system</code>, <code>rewriteURI</code>,
+ * <code>rewriteSystem</code>, <code>uriSuffix</code>, <code>systemSuffix</code>, <code>group</code> and
+ * <code>nextCatalog</code>, honoring <code>xml:base</code>. URI and system entries are treated alike, as a
+ * schema location is both. An exact match wins over the longest rewrite prefix, which wins over the longest
+ * suffix; catalogs are consulted in the given order, each followed by its next catalogs.
+ * @author NilsCoding
+ */
+public class XmlCatalog {
+
+    /**
+     * Namespace of OASIS XML catalogs.
+     */
+    public static final String CATALOG_NAMESPACE = "urn:oasis:names:tc:entity:xmlns:xml:catalog";
+
+    /**
+     * Namespace of <code>xml:base</code>.
+     */
+    protected static final String XML_NAMESPACE = "http://www.w3.org/XML/1998/namespace";
+
+    /**
+     * Exact entries: normalized location to target location.
+     */
+    protected final Map<String, String> exactEntries = new LinkedHashMap<>();
+    /**
+     * Rewrite entries: normalized location prefix to target prefix.
+     */
+    protected final Map<String, String> rewriteEntries = new LinkedHashMap<>();
+    /**
+     * Suffix entries: location suffix to target location.
+     */
+    protected final Map<String, String> suffixEntries = new LinkedHashMap<>();
+    /**
+     * Catalogs consulted after this one.
+     */
+    protected final List<XmlCatalog> nextCatalogs = new ArrayList<>();
+
+    /**
+     * Loads the given catalog files, including their next catalogs.
+     * Catalogs which could not be loaded are logged and skipped.
+     * @param catalogFiles catalog files, can be null
+     * @param log          logging
+     * @return catalog consulting all given catalogs in order, or null if none was given
+     */
+    public static XmlCatalog load(List<String> catalogFiles, Log log) {
+        if ((catalogFiles == null) || catalogFiles.isEmpty()) {
+            return null;
+        }
+        XmlCatalog catalog = new XmlCatalog();
+        Set<Path> loadedFiles = new HashSet<>();
+        for (String oneCatalogFile : catalogFiles) {
+            if (StringUtils.isEmpty(oneCatalogFile) == false) {
+                XmlCatalog oneCatalog = loadFile(Paths.get(oneCatalogFile.trim()), loadedFiles, log);
+                if (oneCatalog != null) {
+                    catalog.nextCatalogs.add(oneCatalog);
+                }
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * Loads one catalog file and its next catalogs.
+     * @param catalogFile catalog file
+     * @param loadedFiles catalog files already loaded, to skip cycles
+     * @param log         logging
+     * @return catalog or null if it could not be loaded or was already loaded
+     */
+    protected static XmlCatalog loadFile(Path catalogFile, Set<Path> loadedFiles, Log log) {
+        Path absoluteFile = catalogFile.toAbsolutePath().normalize();
+        if (loadedFiles.add(absoluteFile) == false) {
+            return null;
+        }
+        Document catalogDoc;
+        try (InputStream in = Files.newInputStream(absoluteFile)) {
+            DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
+            docFactory.setNamespaceAware(true);
+            // catalogs usually declare the OASIS DTD, which must not be fetched
+            docFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
+            catalogDoc = docBuilder.parse(in, absoluteFile.toUri().toString());
+        } catch (Exception ex) {
+            log.error("could not load XML catalog '" + absoluteFile + "': " + ex);
+            return null;
+        }
+        Element root = catalogDoc.getDocumentElement();
+        if ((CATALOG_NAMESPACE.equals(root.getNamespaceURI()) == false)
+                || ("catalog".equals(root.getLocalName()) == false)) {
+            log.error("not an OASIS XML catalog: '" + absoluteFile + "'");
+            return null;
+        }
+        XmlCatalog catalog = new XmlCatalog();
+        catalog.addEntries(root, absoluteFile.toUri().toString(), loadedFiles, log);
+        log.debug("loaded XML catalog '" + absoluteFile + "'");
+        return catalog;
+    }
+
+    /**
+     * Adds the entries of the given catalog or group element.
+     * @param parent      catalog or group element
+     * @param baseUri     base URI of parent, used to resolve relative targets
+     * @param loadedFiles catalog files already loaded, to skip cycles
+     * @param log         logging
+     */
+    protected void addEntries(Element parent, String baseUri, Set<Path> loadedFiles, Log log) {
+        String parentBase = resolveBase(parent, baseUri);
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if ((child.getNodeType() != Node.ELEMENT_NODE)
+                    || (CATALOG_NAMESPACE.equals(child.getNamespaceURI()) == false)) {
+                continue;
+            }
+            Element entry = (Element) child;
+            String entryBase = resolveBase(entry, parentBase);
+            switch (entry.getLocalName()) {
+                case "uri":
+                    this.putEntry(this.exactEntries, entry, "name", entryBase);
+                    break;
+                case "system":
+                    this.putEntry(this.exactEntries, entry, "systemId", entryBase);
+                    break;
+                case "rewriteURI":
+                    this.putRewrite(entry, "uriStartString", entryBase);
+                    break;
+                case "rewriteSystem":
+                    this.putRewrite(entry, "systemIdStartString", entryBase);
+                    break;
+                case "uriSuffix":
+                    this.putSuffix(entry, "uriSuffix", entryBase);
+                    break;
+                case "systemSuffix":
+                    this.putSuffix(entry, "systemIdSuffix", entryBase);
+                    break;
+                case "group":
+                    this.addEntries(entry, parentBase, loadedFiles, log);
+                    break;
+                case "nextCatalog":
+                    this.addNextCatalog(entry, entryBase, loadedFiles, log);
+                    break;
+                default:
+                    // public, delegate and other entries do not apply to schema locations
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Loads the catalog of the given nextCatalog entry and adds it to the next catalogs.
+     * @param entry       nextCatalog element
+     * @param baseUri     base URI of the entry, used to resolve the catalog location
+     * @param loadedFiles catalog files already loaded, to skip cycles
+     * @param log         logging
+     */
+    protected void addNextCatalog(Element entry, String baseUri, Set<Path> loadedFiles, Log log) {
+        String nextLocation = UrlUtils.resolveLocation(baseUri, entry.getAttribute("catalog"));
+        try {
+            XmlCatalog nextCatalog = loadFile(Paths.get(new URI(nextLocation)), loadedFiles, log);
+            if (nextCatalog != null) {
+                this.nextCatalogs.add(nextCatalog);
+            }
+        } catch (Exception ex) {
+            log.error("could not load XML catalog '" + nextLocation + "': " + ex);
+        }
+    }
+
+    /**
+     * Returns the base URI of the given element, respecting its <code>xml:base</code> attribute.
+     * @param element element
+     * @param baseUri inherited base URI
+     * @return base URI
+     */
+    protected static String resolveBase(Element element, String baseUri) {
+        String xmlBase = element.getAttributeNS(XML_NAMESPACE, "base");
+        if (StringUtils.isEmpty(xmlBase)) {
+            return baseUri;
+        }
+        return UrlUtils.resolveLocation(baseUri, xmlBase);
+    }
+
+    /**
+     * Adds an exact entry.
+     * @param entries  entries to add to
+     * @param entry    catalog entry
+     * @param nameAttr name of attribute with matched location
+     * @param baseUri  base URI of entry
+     */
+    protected void putEntry(Map<String, String> entries, Element entry, String nameAttr, String baseUri) {
+        String name = entry.getAttribute(nameAttr);
+        String target = entry.getAttribute("uri");
+        if ((StringUtils.isEmpty(name) == false) && (StringUtils.isEmpty(target) == false)) {
+            entries.putIfAbsent(UrlUtils.resolveLocation(null, name), UrlUtils.resolveLocation(baseUri, target));
+        }
+    }
+
+    /**
+     * Adds a rewrite entry.
+     * @param entry     catalog entry
+     * @param startAttr name of attribute with matched prefix
+     * @param baseUri   base URI of entry
+     */
+    protected void putRewrite(Element entry, String startAttr, String baseUri) {
+        String start = entry.getAttribute(startAttr);
+        String prefix = entry.getAttribute("rewritePrefix");
+        if ((StringUtils.isEmpty(start) == false) && (StringUtils.isEmpty(prefix) == false)) {
+            String resolvedPrefix = UrlUtils.resolveLocation(baseUri, prefix);
+            if (prefix.endsWith("/") && (resolvedPrefix.endsWith("/") == false)) {
+                resolvedPrefix = resolvedPrefix + "/";
+            }
+            this.rewriteEntries.putIfAbsent(UrlUtils.resolveLocation(null, start), resolvedPrefix);
+        }
+    }
+
+    /**
+     * Adds a suffix entry.
+     * @param entry      catalog entry
+     * @param suffixAttr name of attribute with matched suffix
+     * @param baseUri    base URI of entry
+     */
+    protected void putSuffix(Element entry, String suffixAttr, String baseUri) {
+        String suffix = entry.getAttribute(suffixAttr);
+        String target = entry.getAttribute("uri");
+        if ((StringUtils.isEmpty(suffix) == false) && (StringUtils.isEmpty(target) == false)) {
+            this.suffixEntries.putIfAbsent(suffix.trim(), UrlUtils.resolveLocation(baseUri, target));
+        }
+    }
+
+    /**
+     * Resolves the given location.
+     * @param location normalized absolute location
+     * @return mapped location or null if no entry matches
+     */
+    public String resolve(String location) {
+        if (StringUtils.isEmpty(location)) {
+            return null;
+        }
+        String exactTarget = this.exactEntries.get(location);
+        if (exactTarget != null) {
+            return exactTarget;
+        }
+        String longestStart = null;
+        for (String oneStart : this.rewriteEntries.keySet()) {
+            if (location.startsWith(oneStart)
+                    && ((longestStart == null) || (oneStart.length() > longestStart.length()))) {
+                longestStart = oneStart;
+            }
+        }
+        if (longestStart != null) {
+            return this.rewriteEntries.get(longestStart) + location.substring(longestStart.length());
+        }
+        String longestSuffix = null;
+        for (String oneSuffix : this.suffixEntries.keySet()) {
+            if (location.endsWith(oneSuffix)
+                    && ((longestSuffix == null) || (oneSuffix.length() > longestSuffix.length()))) {
+                longestSuffix = oneSuffix;
+            }
+        }
+        if (longestSuffix != null) {
+            return this.suffixEntries.get(longestSuffix);
+        }
+        for (XmlCatalog oneNextCatalog : this.nextCatalogs) {
+            String nextTarget = oneNextCatalog.resolve(location);
+            if (nextTarget != null) {
+                return nextTarget;
+            }
+        }
+        return null;
+    }
+
+}
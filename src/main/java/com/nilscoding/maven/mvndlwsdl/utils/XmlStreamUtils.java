@@ -0,0 +1,167 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartDocument;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Streaming XML utils based on StAX, using constant memory regardless of file size.
+ * @author NilsCoding
+ */
+public final class XmlStreamUtils {
+
+    /**
+     * Name of schema location attribute.
+     */
+    private static final QName SCHEMA_LOCATION = new QName("schemaLocation");
+    /**
+     * Name of namespace attribute.
+     */
+    private static final QName NAMESPACE = new QName("namespace");
+
+    private XmlStreamUtils() {
+    }
+
+    /**
+     * Finds all schema references (elements with <code>schemaLocation</code> attribute) in one pass.
+     * @param file XML file to scan
+     * @return schema references in document order, can be empty
+     * @throws IOException        on read errors
+     * @throws XMLStreamException on XML errors
+     */
+    public static List<SchemaReference> findSchemaReferences(Path file) throws IOException, XMLStreamException {
+        List<SchemaReference> references = new ArrayList<>();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            XMLEventReader reader = createInputFactory().createXMLEventReader(in);
+            try {
+                while (reader.hasNext()) {
+                    XMLEvent event = reader.nextEvent();
+                    if (event.isStartElement()) {
+                        StartElement element = event.asStartElement();
+                        Attribute locationAttr = element.getAttributeByName(SCHEMA_LOCATION);
+                        if (locationAttr != null) {
+                            Attribute namespaceAttr = element.getAttributeByName(NAMESPACE);
+                            references.add(new SchemaReference(
+                                    (namespaceAttr == null) ? null : namespaceAttr.getValue(),
+                                    locationAttr.getValue()));
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return references;
+    }
+
+    /**
+     * Copies the XML file, rewriting the <code>schemaLocation</code> attributes. The output is encoded as UTF-8.
+     * It is written to a temporary file first, which replaces the target only if the content changed.
+     * @param source            XML file to read
+     * @param target            XML file to write
+     * @param locationRewriter  returns the new schema location for a reference, or null to keep it
+     * @throws IOException        on read or write errors
+     * @throws XMLStreamException on XML errors
+     */
+    public static void copyRewritingSchemaLocations(Path source, Path target,
+                                                    Function<SchemaReference, String> locationRewriter)
+            throws IOException, XMLStreamException {
+        XMLEventFactory eventFactory = XMLEventFactory.newInstance();
+        Path tempFile = FileUtils.createTempFileFor(target);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(source));
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+            XMLEventReader reader = createInputFactory().createXMLEventReader(in);
+            XMLEventWriter writer = XMLOutputFactory.newInstance()
+                    .createXMLEventWriter(out, StandardCharsets.UTF_8.name());
+            try {
+                while (reader.hasNext()) {
+                    XMLEvent event = reader.nextEvent();
+                    if (event.isStartDocument()) {
+                        StartDocument startDocument = (StartDocument) event;
+                        if (startDocument.standaloneSet()) {
+                            event = eventFactory.createStartDocument(StandardCharsets.UTF_8.name(),
+                                    startDocument.getVersion(), startDocument.isStandalone());
+                        } else {
+                            event = eventFactory.createStartDocument(StandardCharsets.UTF_8.name(),
+                                    startDocument.getVersion());
+                        }
+                    } else if (event.isStartElement()) {
+                        event = rewriteSchemaLocation(event.asStartElement(), eventFactory, locationRewriter);
+                    }
+                    writer.add(event);
+                }
+                writer.flush();
+            } finally {
+                writer.close();
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException | RuntimeException ex) {
+            Files.deleteIfExists(tempFile);
+            throw ex;
+        }
+        FileUtils.replaceIfChanged(tempFile, target);
+    }
+
+    /**
+     * Rewrites the schema location attribute of the given element, if any.
+     * @param element          element
+     * @param eventFactory     event factory
+     * @param locationRewriter returns the new schema location for a reference, or null to keep it
+     * @return rewritten or given element
+     */
+    private static StartElement rewriteSchemaLocation(StartElement element, XMLEventFactory eventFactory,
+                                                      Function<SchemaReference, String> locationRewriter) {
+        Attribute locationAttr = element.getAttributeByName(SCHEMA_LOCATION);
+        if (locationAttr == null) {
+            return element;
+        }
+        Attribute namespaceAttr = element.getAttributeByName(NAMESPACE);
+        String newLocation = locationRewriter.apply(new SchemaReference(
+                (namespaceAttr == null) ? null : namespaceAttr.getValue(), locationAttr.getValue()));
+        if (newLocation == null) {
+            return element;
+        }
+        List<Attribute> attributes = new ArrayList<>();
+        for (Iterator<?> it = element.getAttributes(); it.hasNext();) {
+            Attribute oneAttr = (Attribute) it.next();
+            if (SCHEMA_LOCATION.equals(oneAttr.getName())) {
+                attributes.add(eventFactory.createAttribute(SCHEMA_LOCATION, newLocation));
+            } else {
+                attributes.add(oneAttr);
+            }
+        }
+        return eventFactory.createStartElement(element.getName(), attributes.iterator(), element.getNamespaces());
+    }
+
+    /**
+     * Creates a namespace-aware input factory without external entity resolution.
+     * @return input factory
+     */
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return inputFactory;
+    }
+
+}
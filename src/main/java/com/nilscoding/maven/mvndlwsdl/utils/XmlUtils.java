@@ -2,24 +2,38 @@ package com.nilscoding.maven.mvndlwsdl.utils;
 
 import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.w3c.dom.ls.DOMImplementationLS;
+import org.w3c.dom.ls.LSOutput;
+import org.w3c.dom.ls.LSSerializer;
 import org.xml.sax.InputSource;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
-import java.io.FileWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * XML utils.
@@ -27,9 +41,71 @@ import java.util.List;
  */
 public final class XmlUtils {
 
+    /**
+     * Pattern of the encoding in an XML declaration.
+     */
+    private static final Pattern XML_DECLARATION_ENCODING = Pattern.compile("(encoding\\s*=\\s*)([\"'])[^\"']*\\2");
+
+    /**
+     * Pattern of encoding in XML declaration, capturing the value.
+     */
+    private static final Pattern XML_DECLARATION_ENCODING_VALUE =
+            Pattern.compile("encoding\\s*=\\s*[\"']([^\"']*)[\"']");
+
+    /**
+     * Byte order mark of UTF-8.
+     */
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    /**
+     * First byte of big-endian UTF-16 byte order mark, second byte of little-endian one.
+     */
+    private static final byte UTF16_BOM_FIRST = (byte) 0xFE;
+
+    /**
+     * Second byte of big-endian UTF-16 byte order mark, first byte of little-endian one.
+     */
+    private static final byte UTF16_BOM_SECOND = (byte) 0xFF;
+
+    /**
+     * Maximum length of XML declaration to look for an encoding.
+     */
+    private static final int DECLARATION_MAX_LENGTH = 256;
+
+    /**
+     * Pool of idle namespace-aware document builders, as builders are not thread-safe
+     * and creating a factory involves a service lookup. Reset after each use.
+     * Pools instead of thread-locals, so the instances are not bound to the lifetime of a thread.
+     */
+    private static final Queue<DocumentBuilder> DOCUMENT_BUILDERS = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Pool of idle serializers, as serializers are not thread-safe.
+     */
+    private static final Queue<LSSerializer> SERIALIZERS = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Pools of idle compiled XPath expressions by attribute name, as expressions are not thread-safe.
+     */
+    private static final Map<String, Queue<XPathExpression>> ATTRIBUTE_EXPRESSIONS = new ConcurrentHashMap<>();
+
     private XmlUtils() {
     }
 
+    /**
+     * Creates a new namespace-aware document builder.
+     * @return document builder
+     */
+    private static DocumentBuilder newDocumentBuilder() {
+        try {
+            DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
+            docFactory.setNamespaceAware(true);
+            return docFactory.newDocumentBuilder();
+        } catch (ParserConfigurationException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
     /**
      * Parses the given string to XML document.
      * @param xmlStr XML string to parse
@@ -39,20 +115,119 @@ public final class XmlUtils {
         if (StringUtils.isEmpty(xmlStr)) {
             return null;
         }
+        return loadXml(new InputSource(new StringReader(xmlStr)));
+    }
+
+    /**
+     * Parses the given bytes to XML document. The encoding is detected by the parser.
+     * @param xmlBytes XML bytes to parse
+     * @return parsed document or null on error
+     */
+    public static Document loadXmlFromBytes(byte[] xmlBytes) {
+        if ((xmlBytes == null) || (xmlBytes.length == 0)) {
+            return null;
+        }
+        return loadXmlFromStream(new ByteArrayInputStream(xmlBytes));
+    }
+
+    /**
+     * Parses the given stream to XML document. The encoding is detected by the parser.
+     * The stream is not closed.
+     * @param xmlStream XML stream to parse
+     * @return parsed document or null on error
+     */
+    public static Document loadXmlFromStream(InputStream xmlStream) {
+        if (xmlStream == null) {
+            return null;
+        }
+        return loadXml(new InputSource(xmlStream));
+    }
+
+    /**
+     * Parses the given input to XML document, using an idle document builder of the pool.
+     * @param inputXml XML input to parse
+     * @return parsed document or null on error
+     */
+    private static Document loadXml(InputSource inputXml) {
+        DocumentBuilder docBuilder = DOCUMENT_BUILDERS.poll();
+        if (docBuilder == null) {
+            docBuilder = newDocumentBuilder();
+        }
         try {
-            InputSource inputXml = new InputSource(new StringReader(xmlStr));
-            DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-            docFactory.setNamespaceAware(true);
-            DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
             Document doc = docBuilder.parse(inputXml);
             return doc;
         } catch (Exception ex) {
             return null;
+        } finally {
+            docBuilder.reset();
+            DOCUMENT_BUILDERS.offer(docBuilder);
+        }
+    }
+
+    /**
+     * Decodes the given XML bytes to a string, using the encoding of a byte order mark or the
+     * XML declaration, or UTF-8 if none is given.
+     * @param xmlBytes XML bytes to decode
+     * @return XML string or null if bytes are null
+     */
+    public static String toXmlString(byte[] xmlBytes) {
+        if (xmlBytes == null) {
+            return null;
+        }
+        Charset charset = StandardCharsets.UTF_8;
+        int offset = 0;
+        if ((xmlBytes.length >= UTF8_BOM.length) && (xmlBytes[0] == UTF8_BOM[0]) && (xmlBytes[1] == UTF8_BOM[1])
+                && (xmlBytes[2] == UTF8_BOM[2])) {
+            offset = UTF8_BOM.length;
+        } else if ((xmlBytes.length >= 2) && (((xmlBytes[0] == UTF16_BOM_FIRST) && (xmlBytes[1] == UTF16_BOM_SECOND))
+                || ((xmlBytes[0] == UTF16_BOM_SECOND) && (xmlBytes[1] == UTF16_BOM_FIRST)))) {
+            // byte order is detected by decoder
+            charset = StandardCharsets.UTF_16;
+        } else {
+            String prefix = new String(xmlBytes, 0, Math.min(xmlBytes.length, DECLARATION_MAX_LENGTH),
+                    StandardCharsets.ISO_8859_1);
+            int declarationEnd = prefix.indexOf("?>");
+            if (prefix.startsWith("<?xml") && (declarationEnd > 0)) {
+                Matcher matcher = XML_DECLARATION_ENCODING_VALUE.matcher(prefix.substring(0, declarationEnd));
+                if (matcher.find()) {
+                    try {
+                        charset = Charset.forName(matcher.group(1).trim());
+                    } catch (IllegalArgumentException ex) {
+                        charset = StandardCharsets.UTF_8;
+                    }
+                }
+            }
         }
+        return new String(xmlBytes, offset, xmlBytes.length - offset, charset);
     }
 
     /**
-     * Writes the document to a file.
+     * Converts the given XML string to UTF-8 bytes. An encoding in the XML declaration
+     * is changed to UTF-8, so the bytes can be parsed with the correct encoding.
+     * @param xmlStr XML string to convert
+     * @return UTF-8 bytes or null if string is null
+     */
+    public static byte[] toUtf8Bytes(String xmlStr) {
+        if (xmlStr == null) {
+            return null;
+        }
+        String tmpXmlStr = xmlStr;
+        int declarationStart = tmpXmlStr.indexOf("<?xml");
+        int declarationEnd = tmpXmlStr.indexOf("?>");
+        if ((declarationStart >= 0) && (declarationStart <= 1) && (declarationEnd > declarationStart)) {
+            String declaration = tmpXmlStr.substring(declarationStart, declarationEnd);
+            String utf8Declaration = XML_DECLARATION_ENCODING.matcher(declaration).replaceFirst("$1$2UTF-8$2");
+            tmpXmlStr = tmpXmlStr.substring(0, declarationStart) + utf8Declaration
+                    + tmpXmlStr.substring(declarationEnd);
+        }
+        return tmpXmlStr.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the document to a file, encoded as UTF-8.
+     * A DOM Load and Save serializer is used, as it honors the output encoding even if
+     * the document was parsed from a file with a different declared encoding.
+     * The document is serialized to memory first and the file is only written if its content changed.
      * @param xmlDoc   XML document to write
      * @param filename filename
      * @return true on success, false on error
@@ -61,16 +236,27 @@ public final class XmlUtils {
         if ((xmlDoc == null) || (StringUtils.isEmpty(filename))) {
             return false;
         }
+        LSSerializer serializer = SERIALIZERS.poll();
         try {
-            TransformerFactory transformerFactory = TransformerFactory.newInstance();
-            Transformer transformer = transformerFactory.newTransformer();
-            DOMSource source = new DOMSource(xmlDoc);
-            FileWriter writer = new FileWriter(filename);
-            StreamResult result = new StreamResult(writer);
-            transformer.transform(source, result);
+            DOMImplementationLS domImplementation = (DOMImplementationLS) xmlDoc.getImplementation();
+            if (serializer == null) {
+                serializer = domImplementation.createLSSerializer();
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            LSOutput output = domImplementation.createLSOutput();
+            output.setEncoding(StandardCharsets.UTF_8.name());
+            output.setByteStream(out);
+            if (serializer.write(xmlDoc, output) == false) {
+                return false;
+            }
+            FileUtils.writeIfChanged(Paths.get(filename), out.toByteArray());
             return true;
         } catch (Exception ex) {
             return false;
+        } finally {
+            if (serializer != null) {
+                SERIALIZERS.offer(serializer);
+            }
         }
     }
 
@@ -85,22 +271,87 @@ public final class XmlUtils {
         if ((xmlDoc == null) || StringUtils.isEmpty(attrName)) {
             return nodeList;
         }
+        Queue<XPathExpression> expressionPool = null;
+        XPathExpression xpathExpr = null;
         try {
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            xpath.setNamespaceContext(new AdaptiveNamespaceResolver(xmlDoc));
+            if (attrName.indexOf(':') < 0) {
+                // no prefix to resolve, so the expression does not depend on the document
+                expressionPool = ATTRIBUTE_EXPRESSIONS.computeIfAbsent(attrName,
+                        key -> new ConcurrentLinkedQueue<>());
+                xpathExpr = expressionPool.poll();
+                if (xpathExpr == null) {
+                    xpathExpr = compileAttributeExpression(attrName);
+                }
+            } else {
+                XPath xpath = XPathFactory.newInstance().newXPath();
+                xpath.setNamespaceContext(new AdaptiveNamespaceResolver(xmlDoc));
+                xpathExpr = xpath.compile("//*[@" + attrName + "]");
+            }
 
             // find all import nodes with schemaLocation attribute and store them in list
-            XPathExpression xpathExpr = xpath.compile("//*[@" + attrName + "]");
             NodeList list = (NodeList) xpathExpr.evaluate(xmlDoc, XPathConstants.NODESET);
             for (int i = 0; i < list.getLength(); i++) {
                 Node node = list.item(i);
                 nodeList.add(node);
             }
         } catch (Exception ex) {
+        } finally {
+            if ((expressionPool != null) && (xpathExpr != null)) {
+                expressionPool.offer(xpathExpr);
+            }
         }
         return nodeList;
     }
 
+    /**
+     * Compiles the XPath expression to find all nodes with given unprefixed attribute.
+     * @param attrName attribute name
+     * @return compiled expression
+     */
+    private static XPathExpression compileAttributeExpression(String attrName) {
+        try {
+            return XPathFactory.newInstance().newXPath().compile("//*[@" + attrName + "]");
+        } catch (XPathExpressionException ex) {
+            throw new IllegalArgumentException(ex);
+        }
+    }
+
+    /**
+     * Finds all schema references (elements with <code>schemaLocation</code> attribute) in one traversal
+     * of the document, without XPath.
+     * @param xmlDoc XML document
+     * @return schema references with their elements in document order, can be empty
+     */
+    public static List<SchemaReference> findSchemaReferences(Document xmlDoc) {
+        List<SchemaReference> references = new ArrayList<>();
+        if ((xmlDoc == null) || (xmlDoc.getDocumentElement() == null)) {
+            return references;
+        }
+        Node root = xmlDoc.getDocumentElement();
+        Node current = root;
+        while (current != null) {
+            if (current.getNodeType() == Node.ELEMENT_NODE) {
+                Element element = (Element) current;
+                Attr locationAttr = element.getAttributeNodeNS(null, "schemaLocation");
+                if (locationAttr != null) {
+                    Attr namespaceAttr = element.getAttributeNodeNS(null, "namespace");
+                    references.add(new SchemaReference((namespaceAttr == null) ? null : namespaceAttr.getValue(),
+                            locationAttr.getValue(), element));
+                }
+            }
+            // depth-first, document order
+            if (current.getFirstChild() != null) {
+                current = current.getFirstChild();
+            } else {
+                while ((current != null) && (current != root) && (current.getNextSibling() == null)) {
+                    current = current.getParentNode();
+                }
+                current = ((current == null) || (current == root)) ? null : current.getNextSibling();
+            }
+        }
+        return references;
+    }
+
     /**
      * Returns the attribute by name from a Node.
      * @param node     Node
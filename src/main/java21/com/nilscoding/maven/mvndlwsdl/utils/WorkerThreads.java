@@ -0,0 +1,27 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Worker threads for downloads and parsing. This is the implementation for Java 21+, using one virtual thread
+ * per task, so blocking downloads do not need a large pool of platform threads. The number of parallel
+ * downloads is still limited by the caller.
+ * @author NilsCoding
+ */
+public final class WorkerThreads {
+
+    private WorkerThreads() {
+    }
+
+    /**
+     * Creates a new executor with one virtual thread per task.
+     * @param namePrefix     prefix of thread names
+     * @param maxThreadCount maximum number of threads, not used for virtual threads
+     * @return new executor, to be shut down by caller
+     */
+    public static ExecutorService newExecutor(String namePrefix, int maxThreadCount) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 1).factory());
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.nilscoding.maven.mvndlwsdl;
+
+import com.nilscoding.maven.mvndlwsdl.utils.LockFile;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of downloading several WSDLs sharing schemas, against a local server.
+ * @author NilsCoding
+ */
+public class DownloadWsdlMojoTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Map<String, String> documents = new ConcurrentHashMap<>();
+    private MockWebServer server;
+    private Path folder;
+
+    @Before
+    public void setUp() throws Exception {
+        this.server = new MockWebServer();
+        this.server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String body = documents.get(request.getRequestUrl().encodedPath());
+                if (body == null) {
+                    return new MockResponse().setResponseCode(404);
+                }
+                return new MockResponse().setBody(body);
+            }
+        });
+        this.server.start();
+        this.folder = this.temporaryFolder.newFolder("wsdl").toPath();
+
+        // both WSDLs share common.xsd, but map its imported namespace to different locations
+        this.documents.put("/orders", wsdl("urn:common", "common.xsd"));
+        this.documents.put("/billing", wsdl("urn:types", "billing-types.xsd", "urn:common", "common.xsd"));
+        this.documents.put("/common.xsd", schema("urn:common", "urn:types", "orders-types.xsd"));
+        this.documents.put("/orders-types.xsd", schema("urn:types"));
+        this.documents.put("/billing-types.xsd", schema("urn:types"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.server.shutdown();
+    }
+
+    @Test
+    public void sharedSchemaIsWrittenWithFirstWsdl() throws Exception {
+        this.newMojo(false).execute();
+        this.assertSharedSchemaIsWrittenWithFirstWsdl();
+    }
+
+    @Test
+    public void sharedSchemaIsStreamedWithFirstWsdl() throws Exception {
+        this.newMojo(true).execute();
+        this.assertSharedSchemaIsWrittenWithFirstWsdl();
+    }
+
+    private void assertSharedSchemaIsWrittenWithFirstWsdl() throws Exception {
+        try (Stream<Path> files = Files.list(this.folder)) {
+            assertEquals(Arrays.asList("billing.lock", "billing.wsdl", "billing_0.xsd", "orders.lock",
+                    "orders.wsdl", "orders_0.xsd", "orders_1.xsd"), files
+                    .map(onePath -> onePath.getFileName().toString()).sorted().collect(Collectors.toList()));
+        }
+
+        // the shared schema references the namespace as resolved for the first WSDL
+        String common = this.readFile("orders_0.xsd");
+        assertTrue(common.contains("schemaLocation=\"orders_1.xsd\""));
+        assertFalse(common.contains("billing_0.xsd"));
+        String billing = this.readFile("billing.wsdl");
+        assertTrue(billing.contains("schemaLocation=\"billing_0.xsd\""));
+        assertTrue(billing.contains("schemaLocation=\"orders_0.xsd\""));
+
+        LockFile billingLockFile = LockFile.read(this.folder.resolve("billing.lock"));
+        assertEquals(Arrays.asList("billing.wsdl", "billing_0.xsd", "orders_0.xsd"), billingLockFile.getEntries()
+                .stream().map(LockFile.Entry::getFilename).collect(Collectors.toList()));
+    }
+
+    private DownloadWsdlMojo newMojo(boolean streaming) throws Exception {
+        DownloadWsdlMojo mojo = new DownloadWsdlMojo();
+        setParameter(mojo, "folder", this.folder.toString() + "/");
+        setParameter(mojo, "wsdls", Arrays.asList(new Wsdl(this.url("/orders"), "orders"),
+                new Wsdl(this.url("/billing"), "billing")));
+        setParameter(mojo, "downloaderOptions", "");
+        setParameter(mojo, "maxParallelDownloads", 4);
+        setParameter(mojo, "lockfile", true);
+        setParameter(mojo, "streaming", streaming);
+        setParameter(mojo, "failOnError", true);
+        setParameter(mojo, "lockFolder", this.temporaryFolder.newFolder().toString());
+        return mojo;
+    }
+
+    private String readFile(String filename) throws Exception {
+        return new String(Files.readAllBytes(this.folder.resolve(filename)), StandardCharsets.UTF_8);
+    }
+
+    private String url(String path) {
+        return this.server.url(path).toString();
+    }
+
+    private static void setParameter(DownloadWsdlMojo mojo, String name, Object value) throws Exception {
+        Field field = DownloadWsdlMojo.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(mojo, value);
+    }
+
+    private static String wsdl(String... imports) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<wsdl:definitions xmlns:wsdl=\"http://schemas.xmlsoap.org/wsdl/\""
+                + " xmlns:xs=\"http://www.w3.org/2001/XMLSchema\"><wsdl:types><xs:schema>"
+                + imports(imports) + "</xs:schema></wsdl:types></wsdl:definitions>";
+    }
+
+    private static String schema(String targetNamespace, String... imports) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\""
+                + targetNamespace + "\">" + imports(imports) + "<xs:element name=\"e\" type=\"xs:string\"/>"
+                + "</xs:schema>";
+    }
+
+    private static String imports(String... namespacesAndLocations) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i + 1 < namespacesAndLocations.length; i += 2) {
+            sb.append("<xs:import namespace=\"").append(namespacesAndLocations[i])
+                    .append("\" schemaLocation=\"").append(namespacesAndLocations[i + 1]).append("\"/>");
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of writing and extracting contract archives.
+ * @author NilsCoding
+ */
+public class ContractArchiveTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Log log = new SystemStreamLog();
+    private Path folder;
+    private Map<String, LockFile> lockFiles;
+
+    @Before
+    public void setUp() throws IOException {
+        this.folder = this.temporaryFolder.newFolder("contracts").toPath();
+        this.writeFile("orders.wsdl", "<definitions name=\"orders\"/>");
+        this.writeFile("billing.wsdl", "<definitions name=\"billing\"/>");
+        this.writeFile("orders_0.xsd", "<schema/>");
+        LockFile ordersLockFile = new LockFile("config-1");
+        ordersLockFile.add(this.folder, "orders.wsdl", "http://example.com/orders?wsdl");
+        ordersLockFile.add(this.folder, "orders_0.xsd", "http://example.com/common.xsd");
+        LockFile billingLockFile = new LockFile("config-1");
+        billingLockFile.add(this.folder, "billing.wsdl", "http://example.com/billing?wsdl");
+        billingLockFile.add(this.folder, "orders_0.xsd", "http://example.com/common.xsd");
+        this.lockFiles = new LinkedHashMap<>();
+        this.lockFiles.put("orders", ordersLockFile);
+        this.lockFiles.put("billing", billingLockFile);
+    }
+
+    @Test
+    public void unchangedSetResultsInIdenticalArchive() throws IOException {
+        Path first = this.temporaryFolder.getRoot().toPath().resolve("first.jar");
+        ContractArchive.write(first, this.folder, this.lockFiles);
+        Files.setLastModifiedTime(this.folder.resolve("orders_0.xsd"), FileTime.fromMillis(0L));
+        Path second = this.temporaryFolder.getRoot().toPath().resolve("second.jar");
+        ContractArchive.write(second, this.folder, this.lockFiles);
+
+        assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+        try (JarFile jarFile = new JarFile(first.toFile())) {
+            List<String> names = new ArrayList<>();
+            long entryTime = jarFile.entries().nextElement().getTime();
+            for (JarEntry oneEntry : Collections.list(jarFile.entries())) {
+                names.add(oneEntry.getName());
+                assertEquals(entryTime, oneEntry.getTime());
+            }
+            assertEquals(6, names.size());
+            assertEquals(1, Collections.frequency(names, "orders_0.xsd"));
+            assertEquals("orders billing",
+                    jarFile.getManifest().getMainAttributes().getValue(ContractArchive.WSDLS_ATTRIBUTE));
+        }
+    }
+
+    @Test
+    public void archiveIsExtractedWithoutManifest() throws IOException {
+        Path archive = this.temporaryFolder.getRoot().toPath().resolve("contracts.jar");
+        ContractArchive.write(archive, this.folder, this.lockFiles);
+        Path target = this.temporaryFolder.newFolder("extracted").toPath();
+
+        assertEquals(5, ContractArchive.extract(archive, target, this.log));
+        assertArrayEquals(Files.readAllBytes(this.folder.resolve("orders_0.xsd")),
+                Files.readAllBytes(target.resolve("orders_0.xsd")));
+        assertTrue(LockFile.read(target.resolve("billing.lock")).verify(target, "http://example.com/billing?wsdl",
+                "config-1", this.log));
+        assertFalse(Files.exists(target.resolve("META-INF")));
+    }
+
+    @Test
+    public void entriesOutsideOfFolderAreRejected() throws IOException {
+        Path archive = this.temporaryFolder.getRoot().toPath().resolve("evil.jar");
+        try (OutputStream out = Files.newOutputStream(archive);
+                JarOutputStream jarOut = new JarOutputStream(out)) {
+            jarOut.putNextEntry(new JarEntry("../evil.xsd"));
+            jarOut.write("<schema/>".getBytes(StandardCharsets.UTF_8));
+            jarOut.closeEntry();
+        }
+        Path target = this.temporaryFolder.newFolder("target").toPath();
+
+        try {
+            ContractArchive.extract(archive, target, this.log);
+            fail("entry outside of output folder was extracted");
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage().contains("../evil.xsd"));
+        }
+        assertFalse(Files.exists(target.resolveSibling("evil.xsd")));
+    }
+
+    private void writeFile(String filename, String content) throws IOException {
+        Files.write(this.folder.resolve(filename), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
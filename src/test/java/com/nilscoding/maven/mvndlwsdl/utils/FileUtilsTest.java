@@ -0,0 +1,90 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the file utils.
+ * @author NilsCoding
+ */
+public class FileUtilsTest {
+
+    private static final FileTime OLD_TIME = FileTime.fromMillis(1000000000000L);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void unchangedContentIsNotWritten() throws Exception {
+        Path target = this.temporaryFolder.getRoot().toPath().resolve("service.wsdl");
+        byte[] content = "<definitions/>".getBytes(StandardCharsets.UTF_8);
+        assertTrue(FileUtils.writeIfChanged(target, content));
+        Files.setLastModifiedTime(target, OLD_TIME);
+
+        assertFalse(FileUtils.writeIfChanged(target, content));
+        assertEquals(OLD_TIME, Files.getLastModifiedTime(target));
+        assertEquals(1, this.listFolder().length);
+    }
+
+    @Test
+    public void changedContentIsWritten() throws Exception {
+        Path target = this.temporaryFolder.getRoot().toPath().resolve("sub/service.wsdl");
+        assertTrue(FileUtils.writeIfChanged(target, "<definitions/>".getBytes(StandardCharsets.UTF_8)));
+        Files.setLastModifiedTime(target, OLD_TIME);
+
+        byte[] changed = "<definitions></definitions>".getBytes(StandardCharsets.UTF_8);
+        assertTrue(FileUtils.writeIfChanged(target, changed));
+        assertArrayEquals(changed, Files.readAllBytes(target));
+        assertFalse(OLD_TIME.equals(Files.getLastModifiedTime(target)));
+    }
+
+    @Test
+    public void tempFileIsCreatedNextToTargetWithItsPermissions() throws Exception {
+        Path target = this.temporaryFolder.newFile("service.wsdl").toPath();
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+        if (posix) {
+            Files.setPosixFilePermissions(target, PosixFilePermissions.fromString("rw-r-----"));
+        }
+
+        Path tempFile = FileUtils.createTempFileFor(target);
+        assertEquals(target.toAbsolutePath().getParent(), tempFile.getParent());
+        assertTrue(tempFile.getFileName().toString().startsWith(".service.wsdl.mvndlwsdl-"));
+        assertTrue(tempFile.getFileName().toString().endsWith(".tmp"));
+        if (posix) {
+            assertEquals(Files.getPosixFilePermissions(target), Files.getPosixFilePermissions(tempFile));
+        }
+    }
+
+    @Test
+    public void onlyTopLevelTempFilesAreDeleted() throws Exception {
+        Path folder = this.temporaryFolder.getRoot().toPath();
+        Path tempFile = FileUtils.createTempFileFor(folder.resolve("service.wsdl"));
+        Path nestedTempFile = FileUtils.createTempFileFor(folder.resolve("sub/service.wsdl"));
+        Path otherFile = Files.createFile(folder.resolve(".other.tmp"));
+        Path userFile = Files.createFile(folder.resolve("service.wsdl"));
+
+        assertEquals(1, FileUtils.deleteTempFiles(folder));
+        assertFalse(Files.exists(tempFile));
+        assertTrue(Files.exists(nestedTempFile));
+        assertTrue(Files.exists(otherFile));
+        assertTrue(Files.exists(userFile));
+        assertEquals(0, FileUtils.deleteTempFiles(folder.resolve("missing")));
+    }
+
+    private String[] listFolder() {
+        return this.temporaryFolder.getRoot().list();
+    }
+
+}
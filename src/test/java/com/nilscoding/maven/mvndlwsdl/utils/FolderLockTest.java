@@ -0,0 +1,87 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of the output folder lock.
+ * @author NilsCoding
+ */
+public class FolderLockTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Log log = new SystemStreamLog();
+
+    @Test
+    public void sameFolderIsLockedExclusively() throws Exception {
+        Path folder = this.temporaryFolder.getRoot().toPath().resolve("out");
+        Path lockFolder = this.temporaryFolder.getRoot().toPath().resolve("locks");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> waiting;
+            try (FolderLock folderLock = FolderLock.acquire(folder, lockFolder, this.log)) {
+                waiting = executor.submit(() -> {
+                    // same folder, other spelling
+                    try (FolderLock otherLock = FolderLock.acquire(folder.resolve("../out"), lockFolder, this.log)) {
+                        return null;
+                    }
+                });
+                try {
+                    waiting.get(200, TimeUnit.MILLISECONDS);
+                    fail("lock on the same folder was acquired twice");
+                } catch (TimeoutException ex) {
+                    // still waiting, as expected
+                }
+            }
+            waiting.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void markerFilesAreKeptOutOfOutputFolders() throws Exception {
+        Path first = this.temporaryFolder.getRoot().toPath().resolve("first/wsdl");
+        Path second = this.temporaryFolder.getRoot().toPath().resolve("second/wsdl");
+        Path lockFolder = this.temporaryFolder.getRoot().toPath().resolve("locks");
+        try (FolderLock firstLock = FolderLock.acquire(first, lockFolder, this.log);
+                FolderLock secondLock = FolderLock.acquire(second, lockFolder, this.log)) {
+            assertArrayEquals(new String[0], first.toFile().list());
+            assertArrayEquals(new String[0], second.toFile().list());
+            File[] markerFiles = lockFolder.toFile().listFiles();
+            assertEquals(2, markerFiles.length);
+            for (File oneMarkerFile : markerFiles) {
+                assertTrue(oneMarkerFile.getName().startsWith("wsdl-"));
+                assertTrue(oneMarkerFile.getName().endsWith(FolderLock.LOCK_FILE_SUFFIX));
+            }
+        }
+    }
+
+    @Test
+    public void markerFileIsNamedByNormalizedFolder() {
+        Path folder = this.temporaryFolder.getRoot().toPath().resolve("out").toAbsolutePath().normalize();
+        assertEquals(FolderLock.lockFilename(folder),
+                FolderLock.lockFilename(folder.resolve("../out").toAbsolutePath().normalize()));
+        assertNotEquals(FolderLock.lockFilename(folder),
+                FolderLock.lockFilename(folder.resolveSibling("other").resolve("out")));
+    }
+
+}
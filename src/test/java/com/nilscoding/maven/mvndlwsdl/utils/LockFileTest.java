@@ -0,0 +1,104 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of writing, reading and verifying lockfiles.
+ * @author NilsCoding
+ */
+public class LockFileTest {
+
+    private static final String WSDL_URL = "http://example.com/service?wsdl";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Log log = new SystemStreamLog();
+    private Path folder;
+    private Path lockfilePath;
+
+    @Before
+    public void setUp() throws IOException {
+        this.folder = this.temporaryFolder.getRoot().toPath();
+        this.lockfilePath = this.folder.resolve("service.lock");
+        this.writeFile("service.wsdl", "<definitions/>");
+        this.writeFile("service_0.xsd", "<schema/>");
+        LockFile lockFile = new LockFile("config-1");
+        assertTrue(lockFile.add(this.folder, "service.wsdl", WSDL_URL));
+        assertTrue(lockFile.add(this.folder, "service_0.xsd", "http://example.com/a.xsd"));
+        assertFalse(lockFile.add(this.folder, "missing.xsd", "http://example.com/missing.xsd"));
+        lockFile.write(this.lockfilePath);
+    }
+
+    @Test
+    public void writtenLockFileIsReadBack() throws IOException {
+        LockFile lockFile = LockFile.read(this.lockfilePath);
+        assertEquals("config-1", lockFile.getConfiguration());
+        assertEquals(2, lockFile.getEntries().size());
+        assertEquals("service_0.xsd", lockFile.getEntries().get(1).getFilename());
+        assertEquals("http://example.com/a.xsd", lockFile.getEntries().get(1).getUrl());
+        assertEquals(HashUtils.sha256Hex("<schema/>".getBytes(StandardCharsets.UTF_8)),
+                lockFile.getEntries().get(1).getHash());
+        String content = new String(Files.readAllBytes(this.lockfilePath), StandardCharsets.UTF_8);
+        assertFalse(content.contains("\r"));
+    }
+
+    @Test
+    public void unchangedFilesAreVerified() {
+        assertTrue(LockFile.read(this.lockfilePath).verify(this.folder, WSDL_URL, "config-1", this.log));
+    }
+
+    @Test
+    public void changedFilesAreNotVerified() throws IOException {
+        this.writeFile("service_0.xsd", "<schema></schema>");
+        assertFalse(LockFile.read(this.lockfilePath).verify(this.folder, WSDL_URL, "config-1", this.log));
+    }
+
+    @Test
+    public void otherWsdlLocationIsNotVerified() {
+        assertFalse(LockFile.read(this.lockfilePath).verify(this.folder, "http://example.com/other?wsdl",
+                "config-1", this.log));
+    }
+
+    @Test
+    public void otherConfigurationIsNotVerified() {
+        assertFalse(LockFile.read(this.lockfilePath).verify(this.folder, WSDL_URL, "config-2", this.log));
+    }
+
+    @Test
+    public void lockFileWithoutConfigurationIsNotVerified() throws IOException {
+        Files.write(this.lockfilePath, Files.readAllLines(this.lockfilePath, StandardCharsets.UTF_8).stream()
+                .filter(oneLine -> oneLine.startsWith(LockFile.CONFIGURATION_PREFIX) == false)
+                .collect(Collectors.toList()), StandardCharsets.UTF_8);
+        LockFile lockFile = LockFile.read(this.lockfilePath);
+        assertNull(lockFile.getConfiguration());
+        assertFalse(lockFile.verify(this.folder, WSDL_URL, "config-1", this.log));
+    }
+
+    @Test
+    public void malformedOrMissingLockFileIsNotRead() throws IOException {
+        assertNull(LockFile.read(this.folder.resolve("missing.lock")));
+        this.writeFile("broken.lock", "not a lockfile line\n");
+        assertNull(LockFile.read(this.folder.resolve("broken.lock")));
+    }
+
+    private void writeFile(String filename, String content) throws IOException {
+        Files.write(this.folder.resolve(filename), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
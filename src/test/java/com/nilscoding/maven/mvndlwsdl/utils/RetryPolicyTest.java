@@ -0,0 +1,110 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.internal.http2.ErrorCode;
+import okhttp3.internal.http2.StreamResetException;
+import org.junit.Test;
+import javax.net.ssl.SSLHandshakeException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the retry policy.
+ * @author NilsCoding
+ */
+public class RetryPolicyTest {
+
+    private final RetryPolicy retryPolicy = new RetryPolicy(3, 100, 1000);
+
+    @Test
+    public void transientIoErrorsAreRetried() {
+        assertTrue(RetryPolicy.isTransient(new SocketTimeoutException("read timed out")));
+        assertTrue(RetryPolicy.isTransient(new SocketException("connection reset")));
+        assertTrue(RetryPolicy.isTransient(new EOFException("unexpected end of stream")));
+        assertTrue(RetryPolicy.isTransient(new StreamResetException(ErrorCode.REFUSED_STREAM)));
+    }
+
+    @Test
+    public void permanentIoErrorsAreNotRetried() {
+        assertFalse(RetryPolicy.isTransient(new UnknownHostException("example.invalid")));
+        assertFalse(RetryPolicy.isTransient(new ConnectException("connection refused")));
+        assertFalse(RetryPolicy.isTransient(new SSLHandshakeException("bad certificate")));
+        assertFalse(RetryPolicy.isTransient(new IOException("protocol error")));
+        assertEquals(-1, this.retryPolicy.retryDelay(0, new UnknownHostException("example.invalid")));
+    }
+
+    @Test
+    public void onlyTransientStatusCodesAreRetried() {
+        assertTrue(RetryPolicy.isTransient(429));
+        assertTrue(RetryPolicy.isTransient(502));
+        assertTrue(RetryPolicy.isTransient(503));
+        assertTrue(RetryPolicy.isTransient(504));
+        assertFalse(RetryPolicy.isTransient(404));
+        assertFalse(RetryPolicy.isTransient(500));
+        assertEquals(-1, this.retryPolicy.retryDelay(0, response(404, null)));
+    }
+
+    @Test
+    public void backoffGrowsWithJitterAndIsLimited() {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            long backoff = Math.min(100L << attempt, 1000L);
+            long delay = this.retryPolicy.retryDelay(attempt, new SocketTimeoutException());
+            assertTrue(delay >= backoff / 2);
+            assertTrue(delay <= backoff);
+        }
+        assertTrue(new RetryPolicy(30, 100, 1000).retryDelay(25, new SocketTimeoutException()) <= 1000);
+    }
+
+    @Test
+    public void retriesAreLimited() {
+        assertEquals(-1, this.retryPolicy.retryDelay(3, new SocketTimeoutException()));
+        assertEquals(-1, this.retryPolicy.retryDelay(3, response(503, null)));
+        assertEquals(-1, new RetryPolicy(0, 100, 1000).retryDelay(0, new SocketTimeoutException()));
+    }
+
+    @Test
+    public void retryAfterIsHonoredAndLimited() {
+        assertEquals(0, this.retryPolicy.retryDelay(0, response(429, "0")));
+        assertEquals(1000, this.retryPolicy.retryDelay(0, response(503, "120")));
+        String httpDate = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC)
+                .plusSeconds(600));
+        assertEquals(1000, this.retryPolicy.retryDelay(0, response(503, httpDate)));
+        long delay = this.retryPolicy.retryDelay(0, response(503, "soon"));
+        assertTrue((delay >= 50) && (delay <= 100));
+    }
+
+    @Test
+    public void retryAfterIsParsed() {
+        assertEquals(2000, RetryPolicy.parseRetryAfter(" 2 "));
+        assertEquals(0, RetryPolicy.parseRetryAfter("-5"));
+        assertEquals(0, RetryPolicy.parseRetryAfter("Thu, 01 Jan 1970 00:00:00 GMT"));
+        assertEquals(-1, RetryPolicy.parseRetryAfter(null));
+        assertEquals(-1, RetryPolicy.parseRetryAfter("soon"));
+    }
+
+    private static Response response(int code, String retryAfter) {
+        Response.Builder builder = new Response.Builder()
+                .request(new Request.Builder().url("http://example.com/a.xsd").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("status " + code);
+        if (retryAfter != null) {
+            builder.header("Retry-After", retryAfter);
+        }
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,225 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of the schema crawler against a local server.
+ * @author NilsCoding
+ */
+public class SchemaCrawlerTest {
+
+    private final Log log = new SystemStreamLog();
+    private final Map<String, String> documents = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private MockWebServer server;
+    private IDownloader downloader;
+
+    @Before
+    public void setUp() throws Exception {
+        this.server = new MockWebServer();
+        this.server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getRequestUrl().encodedPath();
+                requestCounts.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+                String body = documents.get(path);
+                if (body == null) {
+                    return new MockResponse().setResponseCode(404);
+                }
+                return new MockResponse().setBody(body);
+            }
+        });
+        this.server.start();
+        this.downloader = DownloadUtils.openDownloader(null, "", this.log);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.downloader.close();
+        this.server.shutdown();
+    }
+
+    @Test
+    public void cyclesAreCrawledOnce() throws Exception {
+        this.documents.put("/service", wsdl("urn:a", "a.xsd"));
+        this.documents.put("/a.xsd", schema("urn:a", "urn:b", "b.xsd"));
+        this.documents.put("/b.xsd", schema("urn:b", "urn:a", "./a.xsd"));
+
+        Map<String, SchemaFile> resolvedSchemas;
+        try (SchemaCrawler crawler = this.newCrawler()) {
+            resolvedSchemas = this.crawl(crawler, "/service");
+        }
+
+        assertEquals(Arrays.asList("urn:a", "urn:b"), new ArrayList<>(resolvedSchemas.keySet()));
+        assertEquals(this.url("/b.xsd"), resolvedSchemas.get("urn:b").getSourceUrl());
+        assertEquals(1, this.requestCounts.get("/a.xsd").get());
+        assertEquals(1, this.requestCounts.get("/b.xsd").get());
+    }
+
+    @Test
+    public void resultsKeepReferenceOrder() throws Exception {
+        this.documents.put("/service", wsdl("urn:a", this.url("/a.xsd"), "urn:b", this.url("/b.xsd"),
+                "urn:c", this.url("/c.xsd")));
+        this.documents.put("/a.xsd", schema("urn:a", "urn:d", this.url("/d.xsd")));
+        this.documents.put("/b.xsd", schema("urn:b"));
+        this.documents.put("/c.xsd", schema("urn:c", "urn:e", this.url("/e.xsd")));
+        this.documents.put("/d.xsd", schema("urn:d"));
+        this.documents.put("/e.xsd", schema("urn:e"));
+
+        try (SchemaCrawler crawler = this.newCrawler()) {
+            Map<String, SchemaFile> resolvedSchemas = this.crawl(crawler, "/service");
+            assertEquals(Arrays.asList("urn:a", "urn:b", "urn:c", "urn:d", "urn:e"),
+                    new ArrayList<>(resolvedSchemas.keySet()));
+        }
+    }
+
+    @Test
+    public void failedLocationsAreRecorded() throws Exception {
+        this.documents.put("/service", wsdl("urn:a", "a.xsd", "urn:missing", "missing.xsd"));
+        this.documents.put("/a.xsd", schema("urn:a"));
+
+        try (SchemaCrawler crawler = this.newCrawler()) {
+            Map<String, SchemaFile> resolvedSchemas = this.crawl(crawler, "/service");
+            assertEquals(Collections.singleton("urn:a"), resolvedSchemas.keySet());
+            assertEquals(Collections.singleton(this.url("/missing.xsd")), crawler.getFailedLocations());
+        }
+        assertEquals(1, this.requestCounts.get("/missing.xsd").get());
+    }
+
+    @Test
+    public void identicalContentIsDeduplicated() throws Exception {
+        String content = schema("urn:a");
+        this.documents.put("/service", wsdl("urn:a", this.url("/a.xsd"), "urn:copy", this.url("/copy/a.xsd")));
+        this.documents.put("/a.xsd", content);
+        this.documents.put("/copy/a.xsd", content);
+
+        try (SchemaCrawler crawler = this.newCrawler()) {
+            crawler.setDeduplicate(true);
+            Map<String, SchemaFile> resolvedSchemas = this.crawl(crawler, "/service");
+            assertSame(resolvedSchemas.get("urn:a"), resolvedSchemas.get("urn:copy"));
+            assertEquals(1, crawler.getDuplicateCount());
+        }
+        try (SchemaCrawler crawler = this.newCrawler()) {
+            Map<String, SchemaFile> resolvedSchemas = this.crawl(crawler, "/service");
+            assertNotSame(resolvedSchemas.get("urn:a"), resolvedSchemas.get("urn:copy"));
+            assertEquals(0, crawler.getDuplicateCount());
+        }
+    }
+
+    @Test
+    public void crawlsShareFetches() throws Exception {
+        this.documents.put("/service", wsdl("urn:a", "a.xsd"));
+        this.documents.put("/other", wsdl("urn:a", "http://" + this.server.getHostName() + ":"
+                + this.server.getPort() + "/./a.xsd"));
+        this.documents.put("/a.xsd", schema("urn:a"));
+
+        try (SchemaCrawler crawler = this.newCrawler()) {
+            Map<String, SchemaFile> serviceSchemas = this.crawl(crawler, "/service");
+            Map<String, SchemaFile> otherSchemas = this.crawl(crawler, "/other");
+            assertSame(serviceSchemas.get("urn:a"), otherSchemas.get("urn:a"));
+        }
+        assertEquals(1, this.requestCounts.get("/a.xsd").get());
+    }
+
+    @Test
+    public void releasedSchemasAreStillCrawled() throws Exception {
+        String wsdl = wsdl("urn:a", "a.xsd");
+        this.documents.put("/service", wsdl);
+        this.documents.put("/copy", wsdl);
+        this.documents.put("/a.xsd", schema("urn:a", "urn:b", "b.xsd"));
+        this.documents.put("/b.xsd", schema("urn:b"));
+
+        try (SchemaCrawler crawler = this.newCrawler()) {
+            crawler.setDeduplicate(true);
+            SchemaFile serviceFile = crawler.fetchRoot(this.url("/service"));
+            Map<String, SchemaFile> serviceSchemas = crawler.crawl(serviceFile.getSourceUrl(),
+                    serviceFile.getReferences());
+            serviceFile.release();
+            serviceSchemas.values().forEach(SchemaFile::release);
+
+            // identical root documents are written on their own
+            SchemaFile copyFile = crawler.fetchRoot(this.url("/copy"));
+            assertNotSame(serviceFile, copyFile);
+            assertNotNull(copyFile.getDocument());
+            Map<String, SchemaFile> copySchemas = crawler.crawl(copyFile.getSourceUrl(), copyFile.getReferences());
+            assertEquals(Arrays.asList("urn:a", "urn:b"), new ArrayList<>(copySchemas.keySet()));
+            assertSame(serviceSchemas.get("urn:a"), copySchemas.get("urn:a"));
+            assertNull(copySchemas.get("urn:a").getDocument());
+        }
+        assertEquals(1, this.requestCounts.get("/b.xsd").get());
+    }
+
+    @Test
+    public void streamedCyclesAreCrawledOnce() throws Exception {
+        this.documents.put("/service", wsdl("urn:a", this.url("/a.xsd")));
+        this.documents.put("/a.xsd", schema("urn:a", "urn:b", this.url("/b.xsd")));
+        this.documents.put("/b.xsd", schema("urn:b", "urn:a", this.url("/a.xsd")));
+
+        try (SchemaCrawler crawler = this.newCrawler()) {
+            crawler.setStreaming(true);
+            Map<String, SchemaFile> resolvedSchemas = this.crawl(crawler, "/service");
+            assertEquals(Arrays.asList("urn:a", "urn:b"), new ArrayList<>(resolvedSchemas.keySet()));
+            assertNull(resolvedSchemas.get("urn:b").getDocument());
+            assertNotNull(resolvedSchemas.get("urn:b").getContentFile());
+        }
+        assertEquals(1, this.requestCounts.get("/a.xsd").get());
+        assertEquals(1, this.requestCounts.get("/b.xsd").get());
+    }
+
+    private SchemaCrawler newCrawler() {
+        return new SchemaCrawler(this.downloader, "", this.log, 4);
+    }
+
+    private Map<String, SchemaFile> crawl(SchemaCrawler crawler, String path) throws InterruptedException {
+        SchemaFile rootFile = crawler.fetchRoot(this.url(path));
+        return crawler.crawl(rootFile.getSourceUrl(), rootFile.getReferences());
+    }
+
+    private String url(String path) {
+        return this.server.url(path).toString();
+    }
+
+    private static String wsdl(String... imports) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<wsdl:definitions xmlns:wsdl=\"http://schemas.xmlsoap.org/wsdl/\""
+                + " xmlns:xs=\"http://www.w3.org/2001/XMLSchema\"><wsdl:types><xs:schema>"
+                + imports(imports) + "</xs:schema></wsdl:types></wsdl:definitions>";
+    }
+
+    private static String schema(String targetNamespace, String... imports) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\""
+                + targetNamespace + "\">" + imports(imports) + "<xs:element name=\"e\" type=\"xs:string\"/>"
+                + "</xs:schema>";
+    }
+
+    private static String imports(String... namespacesAndLocations) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i + 1 < namespacesAndLocations.length; i += 2) {
+            sb.append("<xs:import namespace=\"").append(namespacesAndLocations[i])
+                    .append("\" schemaLocation=\"").append(namespacesAndLocations[i + 1]).append("\"/>");
+        }
+        return sb.toString();
+    }
+
+}
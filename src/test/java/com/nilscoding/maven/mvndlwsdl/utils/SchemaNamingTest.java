@@ -0,0 +1,104 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import org.junit.Test;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the schema naming strategies.
+ * @author NilsCoding
+ */
+public class SchemaNamingTest {
+
+    @Test
+    public void indexNamesHaveLeadingZeros() {
+        SchemaNaming naming = new SchemaNaming("");
+        SchemaFile first = schema("urn:a", "http://example.com/a.xsd");
+        SchemaFile last = schema("urn:b", "http://example.com/b.xsd");
+        naming.add("svc", 0, 12, first);
+        naming.add("svc", 11, 12, last);
+        Map<SchemaFile, String> names = naming.createNames();
+        assertEquals("svc_00.xsd", names.get(first));
+        assertEquals("svc_11.xsd", names.get(last));
+    }
+
+    @Test
+    public void namespaceNamesAreSanitized() {
+        SchemaNaming naming = new SchemaNaming(SchemaNaming.NAMESPACE);
+        SchemaFile file = schema("http://example.com/orders/v1", "http://example.com/orders.xsd");
+        naming.add("svc", 0, 1, file);
+        assertEquals("svc_example.com_orders_v1.xsd", naming.createNames().get(file));
+    }
+
+    @Test
+    public void hashNamesDependOnNamespaceAndUrl() {
+        SchemaNaming naming = new SchemaNaming(SchemaNaming.HASH);
+        SchemaFile file = schema("urn:a", "http://example.com/a.xsd");
+        naming.add("svc", 0, 1, file);
+        assertEquals("svc_" + SchemaNaming.shortHash("urn:a http://example.com/a.xsd") + ".xsd",
+                naming.createNames().get(file));
+    }
+
+    @Test
+    public void collisionsDoNotDependOnOrder() {
+        SchemaFile first = schema("urn:a", "http://example.com/a1.xsd");
+        SchemaFile second = schema("urn:a", "http://example.com/a2.xsd");
+
+        SchemaNaming naming = new SchemaNaming(SchemaNaming.NAMESPACE);
+        naming.add("svc", 0, 2, first);
+        naming.add("svc", 1, 2, second);
+        Map<SchemaFile, String> names = naming.createNames();
+
+        SchemaNaming reversedNaming = new SchemaNaming(SchemaNaming.NAMESPACE);
+        reversedNaming.add("svc", 0, 2, second);
+        reversedNaming.add("svc", 1, 2, first);
+        Map<SchemaFile, String> reversedNames = reversedNaming.createNames();
+
+        assertEquals("svc_urn_a_" + SchemaNaming.shortHash("http://example.com/a1.xsd") + ".xsd", names.get(first));
+        assertNotEquals(names.get(first), names.get(second));
+        assertEquals(names.get(first), reversedNames.get(first));
+        assertEquals(names.get(second), reversedNames.get(second));
+    }
+
+    @Test
+    public void namesOfPreviousWsdlsAreKept() {
+        SchemaNaming naming = new SchemaNaming(SchemaNaming.NAMESPACE);
+        SchemaFile first = schema("urn:a", "http://example.com/a1.xsd");
+        naming.add("svc", 0, 1, first);
+        assertEquals("svc_urn_a.xsd", naming.createNames().get(first));
+
+        SchemaFile second = schema("urn:a", "http://example.com/a2.xsd");
+        naming.add("svc", 0, 1, second);
+        Map<SchemaFile, String> names = naming.createNames();
+        assertEquals(1, names.size());
+        assertEquals("svc_urn_a_" + SchemaNaming.shortHash("http://example.com/a2.xsd") + ".xsd", names.get(second));
+    }
+
+    @Test
+    public void containsAddedSchemas() {
+        SchemaNaming naming = new SchemaNaming(null);
+        SchemaFile file = schema("urn:a", "http://example.com/a.xsd");
+        assertFalse(naming.contains(file));
+        naming.add("svc", 0, 1, file);
+        assertTrue(naming.contains(file));
+        naming.createNames();
+        assertTrue(naming.contains(file));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownStrategyIsRejected() {
+        new SchemaNaming("random");
+    }
+
+    private static SchemaFile schema(String namespace, String sourceUrl) {
+        SchemaFile file = new SchemaFile();
+        file.setNamespace(namespace);
+        file.setSourceUrl(sourceUrl);
+        return file;
+    }
+
+}
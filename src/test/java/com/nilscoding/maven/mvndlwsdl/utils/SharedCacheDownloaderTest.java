@@ -0,0 +1,130 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Test;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests of sharing downloads across executions.
+ * @author NilsCoding
+ */
+public class SharedCacheDownloaderTest {
+
+    private static final String URL = "http://example.com/a.xsd";
+
+    private final Log log = new SystemStreamLog();
+    private final CountingDownloader delegate = new CountingDownloader();
+    private String scope;
+
+    @Before
+    public void setUp() {
+        // a new scope per test clears the shared cache
+        this.scope = UUID.randomUUID().toString();
+    }
+
+    @Test
+    public void downloadsAreSharedAcrossExecutions() {
+        byte[] content = "<schema/>".getBytes(StandardCharsets.UTF_8);
+        this.delegate.contents.put(URL, content);
+
+        assertArrayEquals(content, this.newDownloader(1).downloadBytes(URL, this.log, ""));
+        assertArrayEquals(content, this.newDownloader(1).downloadBytes(URL, this.log, ""));
+        assertEquals(1, this.delegate.count(URL));
+        assertEquals(content.length, SharedCacheDownloader.CACHED_BYTES.get());
+
+        this.newDownloader(1).downloadBytes(URL, this.log, "other options");
+        assertEquals(2, this.delegate.count(URL));
+
+        this.scope = UUID.randomUUID().toString();
+        this.newDownloader(1).downloadBytes(URL, this.log, "");
+        assertEquals(3, this.delegate.count(URL));
+    }
+
+    @Test
+    public void failedDownloadsAreNotCached() {
+        assertNull(this.newDownloader(1).downloadBytes(URL, this.log, ""));
+        byte[] content = "<schema/>".getBytes(StandardCharsets.UTF_8);
+        this.delegate.contents.put(URL, content);
+
+        assertArrayEquals(content, this.newDownloader(1).downloadBytes(URL, this.log, ""));
+        assertEquals(2, this.delegate.count(URL));
+        assertEquals(content.length, SharedCacheDownloader.CACHED_BYTES.get());
+    }
+
+    @Test
+    public void oversizedContentIsNotCachedAndTakesNoSpace() {
+        String largeUrl = "http://example.com/large.xsd";
+        this.delegate.contents.put(largeUrl, new byte[(int) SharedCacheDownloader.BYTES_PER_MB + 1]);
+        byte[] content = "<schema/>".getBytes(StandardCharsets.UTF_8);
+        this.delegate.contents.put(URL, content);
+
+        this.newDownloader(1).downloadBytes(largeUrl, this.log, "");
+        this.newDownloader(1).downloadBytes(largeUrl, this.log, "");
+        assertEquals(2, this.delegate.count(largeUrl));
+        assertEquals(0, SharedCacheDownloader.CACHED_BYTES.get());
+
+        this.newDownloader(1).downloadBytes(URL, this.log, "");
+        this.newDownloader(1).downloadBytes(URL, this.log, "");
+        assertEquals(1, this.delegate.count(URL));
+        assertEquals(content.length, SharedCacheDownloader.CACHED_BYTES.get());
+    }
+
+    @Test
+    public void zeroSizeDoesNotKeepContent() {
+        this.delegate.contents.put(URL, "<schema/>".getBytes(StandardCharsets.UTF_8));
+
+        this.newDownloader(0).downloadBytes(URL, this.log, "");
+        this.newDownloader(0).downloadBytes(URL, this.log, "");
+        assertEquals(2, this.delegate.count(URL));
+        assertEquals(0, SharedCacheDownloader.CACHED_BYTES.get());
+    }
+
+    private SharedCacheDownloader newDownloader(int maxCachedMb) {
+        return new SharedCacheDownloader(this.delegate, "test", this.scope, maxCachedMb);
+    }
+
+    /**
+     * Downloader serving fixed content, counting requests per URL.
+     */
+    private static final class CountingDownloader implements IDownloader {
+
+        private final Map<String, byte[]> contents = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+        @Override
+        public String downloadFile(String url, Log log, String optionsStr) {
+            return XmlUtils.toXmlString(this.downloadBytes(url, log, optionsStr));
+        }
+
+        @Override
+        public byte[] downloadBytes(String url, Log log, String optionsStr) {
+            this.counts.computeIfAbsent(url, key -> new AtomicInteger()).incrementAndGet();
+            return this.contents.get(url);
+        }
+
+        @Override
+        public CompletableFuture<byte[]> downloadBytesAsync(String url, Log log, String optionsStr,
+                                                            Executor executor) {
+            return CompletableFuture.completedFuture(this.downloadBytes(url, log, optionsStr));
+        }
+
+        private int count(String url) {
+            AtomicInteger count = this.counts.get(url);
+            return (count == null) ? 0 : count.get();
+        }
+
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests of location resolution and normalization.
+ * @author NilsCoding
+ */
+public class UrlUtilsTest {
+
+    @Test
+    public void absoluteLocationsAreNormalized() {
+        assertEquals("http://example.com/b/c.xsd",
+                UrlUtils.resolveLocation(null, "HTTP://Example.COM:80/a/../b/./c.xsd#top"));
+        assertEquals("https://example.com:8443/a.xsd?x=1",
+                UrlUtils.resolveLocation(null, "https://example.com:8443/a.xsd?x=1"));
+        assertEquals("https://example.com/a.xsd", UrlUtils.resolveLocation(null, "https://example.com:443/a.xsd"));
+    }
+
+    @Test
+    public void relativeLocationsAreResolvedAgainstBase() {
+        assertEquals("http://example.com/xsd/common/types.xsd",
+                UrlUtils.resolveLocation("http://example.com/xsd/orders/orders.xsd", "../common/types.xsd"));
+        assertEquals("http://example.com/xsd/types.xsd",
+                UrlUtils.resolveLocation("http://example.com/xsd/service?wsdl", " types.xsd "));
+        assertEquals("file:/tmp/contracts/types.xsd",
+                UrlUtils.resolveLocation("file:/tmp/contracts/service.wsdl", "./types.xsd"));
+    }
+
+    @Test
+    public void relativeLocationsWithoutBaseAreKept() {
+        assertEquals("types.xsd", UrlUtils.resolveLocation(null, "types.xsd"));
+        assertEquals("types.xsd", UrlUtils.resolveLocation("", "types.xsd"));
+        assertNull(UrlUtils.resolveLocation("http://example.com/a.xsd", null));
+    }
+
+    @Test
+    public void opaqueBasesResolveEntryPath() {
+        assertEquals("jar:file:/tmp/contracts.jar!/xsd/common/types.xsd",
+                UrlUtils.resolveLocation("jar:file:/tmp/contracts.jar!/xsd/orders/service.wsdl",
+                        "../common/types.xsd"));
+        assertEquals("classpath:xsd/types.xsd",
+                UrlUtils.resolveLocation("classpath:xsd/service.wsdl", "types.xsd"));
+    }
+
+    @Test
+    public void unresolvableLocationsAreKept() {
+        assertEquals("not a uri.xsd", UrlUtils.resolveLocation("http://example.com/a.xsd", "not a uri.xsd"));
+        assertEquals("types.xsd", UrlUtils.resolveLocation("urn:example:service", "types.xsd"));
+    }
+
+}
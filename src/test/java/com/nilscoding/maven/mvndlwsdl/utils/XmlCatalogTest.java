@@ -0,0 +1,95 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests of the XML catalog entries.
+ * @author NilsCoding
+ */
+public class XmlCatalogTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void exactEntriesWinOverRewriteAndSuffix() throws IOException {
+        File catalogFile = this.writeCatalog("catalog.xml",
+                "<uri name='http://example.com/xsd/types.xsd' uri='local/types.xsd'/>"
+                + "<rewriteURI uriStartString='http://example.com/xsd/' rewritePrefix='mirror/'/>"
+                + "<uriSuffix uriSuffix='/types.xsd' uri='suffix/types.xsd'/>");
+        XmlCatalog catalog = load(catalogFile);
+        String folderUri = this.temporaryFolder.getRoot().toURI().toString();
+
+        assertEquals(UrlUtils.resolveLocation(folderUri, "local/types.xsd"),
+                catalog.resolve("http://example.com/xsd/types.xsd"));
+        assertEquals(UrlUtils.resolveLocation(folderUri, "mirror/") + "orders/orders.xsd",
+                catalog.resolve("http://example.com/xsd/orders/orders.xsd"));
+        assertEquals(UrlUtils.resolveLocation(folderUri, "suffix/types.xsd"),
+                catalog.resolve("http://other.example.com/types.xsd"));
+        assertNull(catalog.resolve("http://other.example.com/orders.xsd"));
+    }
+
+    @Test
+    public void longestRewritePrefixWins() throws IOException {
+        XmlCatalog catalog = load(this.writeCatalog("catalog.xml",
+                "<rewriteURI uriStartString='http://example.com/' rewritePrefix='http://mirror.example.com/'/>"
+                + "<rewriteURI uriStartString='http://example.com/xsd/' rewritePrefix='http://xsd.example.com/'/>"));
+        assertEquals("http://xsd.example.com/a.xsd", catalog.resolve("http://example.com/xsd/a.xsd"));
+        assertEquals("http://mirror.example.com/wsdl/a.wsdl", catalog.resolve("http://example.com/wsdl/a.wsdl"));
+    }
+
+    @Test
+    public void groupsAndNextCatalogsAreConsulted() throws IOException {
+        this.writeCatalog("next.xml",
+                "<system systemId='http://example.com/next.xsd' uri='http://mirror.example.com/next.xsd'/>");
+        XmlCatalog catalog = load(this.writeCatalog("catalog.xml",
+                "<group xml:base='http://mirror.example.com/group/'>"
+                + "<uri name='http://example.com/group.xsd' uri='group.xsd'/></group>"
+                + "<nextCatalog catalog='next.xml'/>"));
+        assertEquals("http://mirror.example.com/group/group.xsd", catalog.resolve("http://example.com/group.xsd"));
+        assertEquals("http://mirror.example.com/next.xsd", catalog.resolve("http://example.com/next.xsd"));
+    }
+
+    @Test
+    public void catalogsAreConsultedInOrder() throws IOException {
+        File firstFile = this.writeCatalog("first.xml",
+                "<uri name='http://example.com/a.xsd' uri='http://first.example.com/a.xsd'/>");
+        File secondFile = this.writeCatalog("second.xml",
+                "<uri name='http://example.com/a.xsd' uri='http://second.example.com/a.xsd'/>"
+                + "<uri name='http://example.com/b.xsd' uri='http://second.example.com/b.xsd'/>");
+        XmlCatalog catalog = XmlCatalog.load(Arrays.asList(firstFile.getPath(), secondFile.getPath()),
+                new SystemStreamLog());
+        assertEquals("http://first.example.com/a.xsd", catalog.resolve("http://example.com/a.xsd"));
+        assertEquals("http://second.example.com/b.xsd", catalog.resolve("http://example.com/b.xsd"));
+    }
+
+    @Test
+    public void noCatalogsLoadNothing() {
+        assertNull(XmlCatalog.load(null, new SystemStreamLog()));
+    }
+
+    private File writeCatalog(String filename, String entries) throws IOException {
+        File catalogFile = new File(this.temporaryFolder.getRoot(), filename);
+        String content = "<?xml version='1.0' encoding='UTF-8'?>\n"
+                + "<catalog xmlns='" + XmlCatalog.CATALOG_NAMESPACE + "'>" + entries + "</catalog>\n";
+        Files.write(catalogFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return catalogFile;
+    }
+
+    private static XmlCatalog load(File catalogFile) {
+        return XmlCatalog.load(Collections.singletonList(catalogFile.getPath()), new SystemStreamLog());
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.nilscoding.maven.mvndlwsdl.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the streaming XML utils.
+ * @author NilsCoding
+ */
+public class XmlStreamUtilsTest {
+
+    private static final String SCHEMA = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n"
+            + "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\"urn:a\">"
+            + "<xs:import namespace=\"urn:b\" schemaLocation=\"http://example.com/b.xsd\"/>"
+            + "<xs:include schemaLocation=\"a-part.xsd\"/>"
+            + "<xs:element name=\"e\" type=\"xs:string\"><xs:annotation>"
+            + "<xs:documentation>Grüße</xs:documentation></xs:annotation></xs:element>"
+            + "</xs:schema>";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void referencesAreFoundInDocumentOrder() throws Exception {
+        List<SchemaReference> references = XmlStreamUtils.findSchemaReferences(this.writeSchema());
+        assertEquals(2, references.size());
+        assertEquals("urn:b", references.get(0).getNamespace());
+        assertEquals("http://example.com/b.xsd", references.get(0).getLocation());
+        assertNull(references.get(1).getNamespace());
+        assertEquals("a-part.xsd", references.get(1).getLocation());
+    }
+
+    @Test
+    public void copyRewritesOnlySchemaLocations() throws Exception {
+        Path target = this.temporaryFolder.getRoot().toPath().resolve("copy.xsd");
+        XmlStreamUtils.copyRewritingSchemaLocations(this.writeSchema(), target,
+                reference -> "urn:b".equals(reference.getNamespace()) ? "svc_1.xsd" : null);
+
+        String copy = new String(Files.readAllBytes(target), StandardCharsets.UTF_8);
+        assertTrue(copy.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\""));
+        assertTrue(copy.contains("schemaLocation=\"svc_1.xsd\""));
+        assertTrue(copy.contains("schemaLocation=\"a-part.xsd\""));
+        assertFalse(copy.contains("http://example.com/b.xsd"));
+        assertTrue(copy.contains("<xs:documentation>Grüße</xs:documentation>"));
+        assertEquals(2, XmlStreamUtils.findSchemaReferences(target).size());
+    }
+
+    private Path writeSchema() throws Exception {
+        Path source = this.temporaryFolder.getRoot().toPath().resolve("a.xsd");
+        Files.write(source, SCHEMA.getBytes(StandardCharsets.ISO_8859_1));
+        return source;
+    }
+
+}